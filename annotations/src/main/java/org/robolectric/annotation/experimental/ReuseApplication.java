@@ -0,0 +1,38 @@
+package org.robolectric.annotation.experimental;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link org.robolectric.pluginapi.config.Configurer} annotation that dictates whether or not
+ * Robolectric should reuse the Application under test for all tests of a test class.
+ *
+ * <p>With {@link Reuse#ON}, the Application is created, and {@code Application.onCreate()} is
+ * called, for the first test of a test class only. The following tests of the class get the same
+ * Application instance, attached to a new base context. The rest of the Android environment is
+ * still reset between tests, but any state held by the Application itself, such as dependency
+ * injection graphs, is kept. Such state can be reset between tests by a {@link
+ * org.robolectric.pluginapi.TestEnvironmentLifecyclePlugin}, see {@link
+ * org.robolectric.pluginapi.TestEnvironmentLifecyclePlugin#onApplicationReused()}. {@code
+ * Application.onTerminate()} is called once the Application is no longer used, when the next test
+ * in the same sandbox belongs to another test class.
+ *
+ * <p>NOTE: This feature is currently still experimental, so any users of {@link Reuse#ON} do so at
+ * their own risk
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PACKAGE, ElementType.TYPE})
+public @interface ReuseApplication {
+
+  /** Whether or not the Application should be reused */
+  @NonNull Reuse value();
+
+  /** Whether or not the Application should be reused */
+  enum Reuse {
+    ON,
+    OFF,
+  }
+}
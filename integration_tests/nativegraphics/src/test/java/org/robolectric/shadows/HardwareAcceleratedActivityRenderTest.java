@@ -11,6 +11,7 @@ import android.os.Handler;
 import android.os.Looper;
 import android.view.PixelCopy;
 import android.view.View;
+import android.view.ViewGroup;
 import android.view.ViewGroup.LayoutParams;
 import android.view.Window;
 import android.widget.FrameLayout;
@@ -53,6 +54,33 @@ public class HardwareAcceleratedActivityRenderTest {
     assertThat(bitmap.getPixel(100, 100)).isEqualTo(Color.RED);
   }
 
+  @Test
+  public void hardwareAcceleratedActivity_repeatedPixelCopy() throws Exception {
+    setSystemPropertyRule.set("robolectric.pixelCopyRenderMode", "hardware");
+
+    HardwareAcceleratedActivity activity =
+        Robolectric.setupActivity(HardwareAcceleratedActivity.class);
+    Window window = activity.getWindow();
+    assertThat(pixelCopy(window).getPixel(100, 100)).isEqualTo(Color.RED);
+
+    // The second screenshot of the same window must not return the first one.
+    ((ViewGroup) window.findViewById(android.R.id.content))
+        .getChildAt(0)
+        .setBackgroundColor(Color.BLUE);
+    assertThat(pixelCopy(window).getPixel(100, 100)).isEqualTo(Color.BLUE);
+  }
+
+  private static Bitmap pixelCopy(Window window) throws InterruptedException {
+    View decorView = window.getDecorView();
+    Bitmap bitmap =
+        Bitmap.createBitmap(decorView.getWidth(), decorView.getHeight(), Bitmap.Config.ARGB_8888);
+    CountDownLatch latch = new CountDownLatch(1);
+    PixelCopy.request(
+        window, bitmap, copyResult -> latch.countDown(), new Handler(Looper.getMainLooper()));
+    latch.await(1, TimeUnit.SECONDS);
+    return bitmap;
+  }
+
   static class HardwareAcceleratedActivity extends Activity {
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -21,6 +21,7 @@ import java.util.Queue;
 import java.util.WeakHashMap;
 import javax.annotation.Nonnull;
 import org.junit.AssumptionViolatedException;
+import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.internal.runners.statements.FailOnTimeout;
 import org.junit.rules.RunRules;
@@ -66,6 +67,13 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
   private static final Injector DEFAULT_INJECTOR = defaultInjector().build();
   public static final String CLASS_NAME_JUNIT_JUPITER_TEST = "org.junit.jupiter.api.Test";
 
+  /**
+   * If this system property is set to {@code false}, tests that run in the same sandbox are not
+   * grouped by their extra shadows, see {@link #groupByExtraShadows(List)}.
+   */
+  public static final String GROUP_BY_EXTRA_SHADOWS_PROPERTY =
+      "robolectric.groupTestsByExtraShadows";
+
   protected static Injector.Builder defaultInjector() {
     return new Injector.Builder();
   }
@@ -224,10 +232,11 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
       public void evaluate() throws Throwable {
         // generating nested statement for all the tests in each sandboxes
         for (Map.Entry<Sandbox, List<FrameworkMethod>> entry : methodsBySandbox.entrySet()) {
-          FrameworkMethod firstMethod = entry.getValue().get(0);
+          List<FrameworkMethod> methods = groupByExtraShadows(entry.getValue());
+          FrameworkMethod firstMethod = methods.get(0);
           Sandbox sandbox = ensureSandboxIsAlive(entry.getKey(), firstMethod);
 
-          Statement statement = childrenInvoker(entry.getValue(), notifier);
+          Statement statement = childrenInvoker(methods, notifier);
 
           Class<?> bootstrappedTestClass = sandbox.bootstrappedClass(getTestClass().getJavaClass());
 
@@ -245,6 +254,37 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
     };
   }
 
+  /**
+   * Orders tests that run in the same sandbox so that tests with the same extra shadows run one
+   * after another, but otherwise keeps their order.
+   *
+   * <p>Each time the extra shadows change from one test to the next, the call sites of the shadowed
+   * classes are invalidated, and have to be linked and compiled again.
+   *
+   * <p>Tests of classes annotated with {@link FixMethodOrder} keep their order, as they may depend
+   * on it.
+   */
+  private List<FrameworkMethod> groupByExtraShadows(List<FrameworkMethod> methods) {
+    if (methods.size() < 2
+        || !Boolean.parseBoolean(System.getProperty(GROUP_BY_EXTRA_SHADOWS_PROPERTY, "true"))
+        || getTestClass().getAnnotation(FixMethodOrder.class) != null) {
+      return methods;
+    }
+    // When extra shadows shadow the same class, the last one declared wins, so tests are only
+    // grouped if they declare the same shadows in the same order.
+    Map<List<Class<?>>, List<FrameworkMethod>> methodsByExtraShadows = new LinkedHashMap<>();
+    for (FrameworkMethod method : methods) {
+      methodsByExtraShadows
+          .computeIfAbsent(ImmutableList.copyOf(getExtraShadows(method)), k -> new ArrayList<>())
+          .add(method);
+    }
+    List<FrameworkMethod> groupedMethods = new ArrayList<>(methods.size());
+    for (List<FrameworkMethod> group : methodsByExtraShadows.values()) {
+      groupedMethods.addAll(group);
+    }
+    return groupedMethods;
+  }
+
   private Statement withClassRules(Statement statement, Class<?> bootstrappedTestClass) {
     HelperTestRunner helperTestRunner = getCachedHelperTestRunner(bootstrappedTestClass);
     return new Statement() {
@@ -65,6 +65,15 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
   protected static final String METHOD_BINDING_FORMAT = "$$robo$$${method}$nativeBinding";
   private static final String HYPHEN_DATA_DIR = "hyphen-data";
 
+  /**
+   * System property naming a directory in which the native runtime is extracted once and shared by
+   * all JVMs, instead of being extracted to a new temporary directory by each JVM.
+   */
+  public static final String CACHE_DIR_PROPERTY = "robolectric.nativeruntime.cacheDir";
+
+  /** Version of the layout of cache entries, to be incremented whenever the layout changes. */
+  private static final int CACHE_VERSION = 1;
+
   // These system properties are used to configure JNI registration for RNG (libandroid_runtime)
   // when it is being loaded. They are also used by Paparazzi, which loads a different version of
   // libandroid_runtime that is packaged in Android Studio's LayoutLib. To ensure that RNG does not
@@ -164,7 +173,7 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
             "android.media.ImageReader",
           });
 
-  private TempDirectory extractDirectory;
+  private Path extractDirectory;
 
   public static void injectAndLoad() {
     // Ensure a single instance.
@@ -178,7 +187,11 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
     nativeRuntimeLoader.get().ensureLoaded();
   }
 
-  /** Overridable in Android, due to private resources. */
+  /**
+   * Overridable in Android, due to private resources. The resources are copied to the directory
+   * that the native runtime is extracted to. As their contents are unknown, the native runtime of a
+   * loader that overrides this is never extracted to the shared {@link #CACHE_DIR_PROPERTY cache}.
+   */
   protected void maybeCopyExtraResources(TempDirectory dir) {
     // default to no-op
   }
@@ -218,15 +231,10 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
           .measure(
               "loadNativeRuntime",
               () -> {
-                extractDirectory = new TempDirectory("nativeruntime");
-                if (VERSION.SDK_INT >= O) {
-                  // Only copy fonts if graphics is supported, not just SQLite.
-                  maybeCopyFonts(extractDirectory);
-                  maybeCopyHyphenData(extractDirectory);
-                }
+                extractDirectory = extractFiles();
+                configureFonts(extractDirectory);
+                configureIcuData(extractDirectory);
                 Map<String, String> originalProperties = new HashMap<>();
-                maybeCopyIcuData(extractDirectory);
-                maybeCopyExtraResources(extractDirectory);
                 if (isAndroidVOrGreater()) {
                   originalProperties = saveSystemProperties();
                   System.setProperty("use_base_native_hostruntime", "true");
@@ -242,11 +250,7 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
                   restoreSystemProperties(originalProperties);
                 }
                 String hyphenDataDir =
-                    extractDirectory
-                        .getBasePath()
-                        .resolve(HYPHEN_DATA_DIR)
-                        .toFile()
-                        .getAbsolutePath();
+                    extractDirectory.resolve(HYPHEN_DATA_DIR).toFile().getAbsolutePath();
                 if (isAndroidVOrGreater()) {
                   invokeDeferredStaticInitializers();
                   setNativeSystemProperty("ro.hyphen.data.dir", hyphenDataDir);
@@ -263,6 +267,61 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
     }
   }
 
+  /**
+   * Extracts the native runtime files, either to the shared cache directory if {@link
+   * #CACHE_DIR_PROPERTY} is set, or to a new temporary directory otherwise or if there are extra
+   * resources.
+   */
+  private Path extractFiles() throws IOException {
+    String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+    if (cacheDir == null || cacheDir.isEmpty() || copiesExtraResources()) {
+      TempDirectory tempDirectory = new TempDirectory("nativeruntime");
+      extractFilesTo(tempDirectory.getBasePath());
+      maybeCopyExtraResources(tempDirectory);
+      return tempDirectory.getBasePath();
+    }
+
+    String key =
+        new ExtractionCache.KeyBuilder("sdk" + VERSION.SDK_INT)
+            .putString(Integer.toString(CACHE_VERSION))
+            .putString(getClass().getName())
+            .putString(nativeLibraryPath())
+            .putSourceOf(Resources.getResource(nativeLibraryPath()))
+            .putSourceOf(Resources.getResource("build.prop"))
+            .build();
+    Path directory =
+        PerfStatsCollector.getInstance()
+            .measure(
+                "extractNativeRuntimeToCache",
+                () ->
+                    new ExtractionCache(Paths.get(cacheDir))
+                        .getOrExtract(key, this::extractFilesTo));
+    return directory;
+  }
+
+  /** Returns whether this loader overrides {@link #maybeCopyExtraResources(TempDirectory)}. */
+  private boolean copiesExtraResources() {
+    for (Class<?> c = getClass(); c != DefaultNativeRuntimeLoader.class; c = c.getSuperclass()) {
+      try {
+        c.getDeclaredMethod("maybeCopyExtraResources", TempDirectory.class);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // Not overridden by this class.
+      }
+    }
+    return false;
+  }
+
+  private void extractFilesTo(Path directory) throws IOException {
+    if (VERSION.SDK_INT >= O) {
+      // Only copy fonts if graphics is supported, not just SQLite.
+      maybeCopyFonts(directory);
+      maybeCopyHyphenData(directory);
+    }
+    copyIcuData(directory);
+    copyLibrary(directory);
+  }
+
   private static List<String> getResourcesInAndroidAll(String prefix) throws IOException {
     try {
       String jarPath =
@@ -285,8 +344,8 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
     }
   }
 
-  /** Attempts to load the ICU dat file. This is only relevant for native graphics. */
-  private void maybeCopyIcuData(TempDirectory tempDirectory) throws IOException {
+  /** Copies the ICU dat file. This is only relevant for native graphics. */
+  private void copyIcuData(Path directory) throws IOException {
     URL icuDatUrl;
     try {
       if (Build.VERSION.SDK_INT <= UPSIDE_DOWN_CAKE) {
@@ -303,7 +362,7 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
       System.out.println("Could not load icu data file ");
       throw new RuntimeException(e);
     }
-    Path icuPath = tempDirectory.create("icu");
+    Path icuPath = java.nio.file.Files.createDirectories(directory.resolve("icu"));
     Path icuDatPath;
     if (VERSION.SDK_INT <= UPSIDE_DOWN_CAKE) {
       icuDatPath = icuPath.resolve("icudt68l.dat");
@@ -312,15 +371,27 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
       icuDatPath = icuPath.resolve(Iterables.getLast(parts));
     }
     Resources.asByteSource(icuDatUrl).copyTo(Files.asByteSink(icuDatPath.toFile()));
+  }
+
+  /** Points ICU to the dat file extracted by {@link #copyIcuData}. */
+  private static void configureIcuData(Path directory) throws IOException {
+    Path icuDatPath;
+    try (Stream<Path> icuFiles = java.nio.file.Files.list(directory.resolve("icu"))) {
+      icuDatPath =
+          icuFiles
+              .filter(path -> path.getFileName().toString().endsWith(".dat"))
+              .findFirst()
+              .orElseThrow(() -> new IOException("No icu data file in " + directory));
+    }
     System.setProperty("icu.data.path", icuDatPath.toAbsolutePath().toString());
     System.setProperty("icu.locale.default", Locale.getDefault().toLanguageTag());
   }
 
   /**
-   * Attempts to copy the system fonts to a temporary directory. This is only relevant for native
+   * Attempts to copy the system fonts to the given directory. This is only relevant for native
    * graphics.
    */
-  private void maybeCopyFonts(TempDirectory tempDirectory) throws IOException {
+  private void maybeCopyFonts(Path directory) throws IOException {
     URI fontsUri;
     try {
       fontsUri = Resources.getResource("fonts/").toURI();
@@ -335,7 +406,7 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
     }
 
     Path fontsInputPath = Paths.get(fontsUri);
-    Path fontsOutputPath = tempDirectory.create("fonts");
+    java.nio.file.Files.createDirectories(directory.resolve("fonts"));
 
     try (Stream<Path> pathStream = java.nio.file.Files.walk(fontsInputPath)) {
       Iterator<Path> fileIterator = pathStream.iterator();
@@ -347,24 +418,31 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
         }
         String fontPath = "fonts/" + path.getFileName();
         URL resource = Resources.getResource(fontPath);
-        Path outputPath = tempDirectory.getBasePath().resolve(fontPath);
+        Path outputPath = directory.resolve(fontPath);
         Resources.asByteSource(resource).copyTo(Files.asByteSink(outputPath.toFile()));
       }
     }
-    System.setProperty(
-        "robolectric.nativeruntime.fontdir",
-        // Android's FontListParser expects a trailing slash for the base font directory.
-        fontsOutputPath.toAbsolutePath() + File.separator);
     if (zipfs != null) {
       zipfs.close();
     }
   }
 
+  /** Points the native runtime to the fonts copied by {@link #maybeCopyFonts}, if any. */
+  private static void configureFonts(Path directory) {
+    Path fontsPath = directory.resolve("fonts");
+    if (java.nio.file.Files.isDirectory(fontsPath)) {
+      System.setProperty(
+          "robolectric.nativeruntime.fontdir",
+          // Android's FontListParser expects a trailing slash for the base font directory.
+          fontsPath.toAbsolutePath() + File.separator);
+    }
+  }
+
   /**
-   * Attempts to copy the hyphen data to a temporary directory. This is only relevant for native
+   * Attempts to copy the hyphen data to the given directory. This is only relevant for native
    * graphics.
    */
-  private void maybeCopyHyphenData(TempDirectory tempDirectory) throws IOException {
+  private void maybeCopyHyphenData(Path directory) throws IOException {
     URI hyphenDataUri;
     try {
       hyphenDataUri = Resources.getResource(HYPHEN_DATA_DIR + "/").toURI();
@@ -380,7 +458,7 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
     }
 
     Path hyphenDataInputPath = Paths.get(hyphenDataUri);
-    tempDirectory.create(HYPHEN_DATA_DIR);
+    java.nio.file.Files.createDirectories(directory.resolve(HYPHEN_DATA_DIR));
 
     try (Stream<Path> pathStream = java.nio.file.Files.walk(hyphenDataInputPath)) {
       Iterator<Path> fileIterator = pathStream.iterator();
@@ -392,7 +470,7 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
         }
         String hyphenDataPath = HYPHEN_DATA_DIR + "/" + path.getFileName();
         URL resource = Resources.getResource(hyphenDataPath);
-        Path outputPath = tempDirectory.getBasePath().resolve(hyphenDataPath);
+        Path outputPath = directory.resolve(hyphenDataPath);
         Resources.asByteSource(resource).copyTo(Files.asByteSink(outputPath.toFile()));
       }
     }
@@ -401,11 +479,16 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
     }
   }
 
-  private void loadLibrary(TempDirectory tempDirectory) throws IOException {
-    Path libraryPath = tempDirectory.getBasePath().resolve(libraryName());
+  private static void copyLibrary(Path directory) throws IOException {
+    Path libraryPath = directory.resolve(libraryName());
     URL libraryResource = Resources.getResource(nativeLibraryPath());
-    Logger.info("Loading android native library from: %s", libraryResource);
+    Logger.info("Extracting android native library from: %s", libraryResource);
     Resources.asByteSource(libraryResource).copyTo(Files.asByteSink(libraryPath.toFile()));
+  }
+
+  private static void loadLibrary(Path directory) {
+    Path libraryPath = directory.resolve(libraryName());
+    Logger.info("Loading android native library from: %s", libraryPath);
     System.load(libraryPath.toAbsolutePath().toString());
   }
 
@@ -456,7 +539,7 @@ public class DefaultNativeRuntimeLoader implements NativeRuntimeLoader {
 
   @VisibleForTesting
   Path getDirectory() {
-    return extractDirectory == null ? null : extractDirectory.getBasePath();
+    return extractDirectory;
   }
 
   @VisibleForTesting
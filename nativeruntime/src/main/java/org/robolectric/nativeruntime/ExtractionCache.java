@@ -0,0 +1,112 @@
+package org.robolectric.nativeruntime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A directory of extracted files that is shared by all JVMs, so that files are only extracted by
+ * the first JVM that needs them.
+ *
+ * <p>Each cache entry is a directory named after a key derived from the files it is extracted from.
+ * Entries are extracted into a staging directory and then atomically renamed, so an entry that
+ * exists is always complete. A file lock ensures that concurrent JVMs don't extract the same entry
+ * at the same time.
+ */
+final class ExtractionCache {
+
+  /** Extracts files into a directory. */
+  interface Extractor {
+    void extractTo(Path directory) throws IOException;
+  }
+
+  private final Path root;
+
+  ExtractionCache(Path root) {
+    this.root = root;
+  }
+
+  /** Returns the directory for the given key, extracting it first if it doesn't exist yet. */
+  Path getOrExtract(String key, Extractor extractor) throws IOException {
+    Path entry = root.resolve(key);
+    if (Files.isDirectory(entry)) {
+      return entry;
+    }
+    Files.createDirectories(root);
+    try (FileChannel lockChannel =
+            FileChannel.open(
+                root.resolve(key + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = lockChannel.lock()) {
+      // Another JVM may have extracted the entry while we were waiting for the lock.
+      if (Files.isDirectory(entry)) {
+        return entry;
+      }
+      Path staging = Files.createTempDirectory(root, key + ".tmp");
+      try {
+        extractor.extractTo(staging);
+        Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException | RuntimeException e) {
+        MoreFiles.deleteRecursively(staging, RecursiveDeleteOption.ALLOW_INSECURE);
+        throw e;
+      }
+    }
+    return entry;
+  }
+
+  /** Builds a cache key that changes whenever any of the files it is built from changes. */
+  static final class KeyBuilder {
+    private final String prefix;
+    private final Hasher hasher = Hashing.sha256().newHasher();
+
+    KeyBuilder(String prefix) {
+      this.prefix = prefix;
+    }
+
+    KeyBuilder putString(String value) {
+      hasher.putString(value, UTF_8).putChar('\0');
+      return this;
+    }
+
+    /**
+     * Adds the file the given resource is loaded from, which is either a jar or a file in a
+     * directory, identified by its path, size and modification time.
+     */
+    KeyBuilder putSourceOf(URL resource) throws IOException {
+      Path source = sourceOf(resource);
+      putString(source.toAbsolutePath().toString());
+      hasher.putLong(Files.size(source));
+      hasher.putLong(Files.getLastModifiedTime(source).toMillis());
+      return this;
+    }
+
+    String build() {
+      return prefix + "-" + hasher.hash().toString().substring(0, 16);
+    }
+
+    private static Path sourceOf(URL resource) throws IOException {
+      String url = resource.toString();
+      if (url.startsWith("jar:")) {
+        url = url.substring("jar:".length(), url.indexOf('!'));
+      }
+      try {
+        return Paths.get(new URI(url));
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        throw new IOException("Unsupported resource location " + resource, e);
+      }
+    }
+  }
+}
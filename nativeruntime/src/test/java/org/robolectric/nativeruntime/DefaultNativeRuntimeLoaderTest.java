@@ -6,6 +6,7 @@ import static com.google.common.truth.TruthJUnit.assume;
 
 import android.database.CursorWindow;
 import android.database.sqlite.SQLiteDatabase;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -14,6 +15,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.util.TempDirectory;
 
 @RunWith(RobolectricTestRunner.class)
 public final class DefaultNativeRuntimeLoaderTest {
@@ -54,6 +56,49 @@ public final class DefaultNativeRuntimeLoaderTest {
     assertThat((Object) defaultNativeRuntimeLoader.getDirectory()).isNotNull();
   }
 
+  @Test
+  public void cacheDir_extractsOnceAndReusesDirectory() throws Exception {
+    Path cacheDir = Files.createTempDirectory("nativeruntime-cache");
+    System.setProperty(DefaultNativeRuntimeLoader.CACHE_DIR_PROPERTY, cacheDir.toString());
+    try {
+      DefaultNativeRuntimeLoader firstLoader = new DefaultNativeRuntimeLoader();
+      firstLoader.ensureLoaded();
+      Path firstDirectory = firstLoader.getDirectory();
+      assertThat(firstDirectory.getParent()).isEqualTo(cacheDir);
+      assertThat(Files.exists(firstDirectory.resolve(DefaultNativeRuntimeLoader.libraryName())))
+          .isTrue();
+
+      DefaultNativeRuntimeLoader.resetLoaded();
+      DefaultNativeRuntimeLoader secondLoader = new DefaultNativeRuntimeLoader();
+      secondLoader.ensureLoaded();
+      assertThat(secondLoader.getDirectory()).isEqualTo(firstDirectory);
+    } finally {
+      System.clearProperty(DefaultNativeRuntimeLoader.CACHE_DIR_PROPERTY);
+    }
+  }
+
+  @Test
+  public void cacheDir_extraResources_areCopiedNextToLibrary() throws Exception {
+    Path cacheDir = Files.createTempDirectory("nativeruntime-cache");
+    System.setProperty(DefaultNativeRuntimeLoader.CACHE_DIR_PROPERTY, cacheDir.toString());
+    try {
+      DefaultNativeRuntimeLoader loader =
+          new DefaultNativeRuntimeLoader() {
+            @Override
+            protected void maybeCopyExtraResources(TempDirectory dir) {
+              dir.createFile("extra.txt", "extra");
+            }
+          };
+      loader.ensureLoaded();
+      Path directory = loader.getDirectory();
+      assertThat(Files.exists(directory.resolve("extra.txt"))).isTrue();
+      assertThat(Files.exists(directory.resolve(DefaultNativeRuntimeLoader.libraryName())))
+          .isTrue();
+    } finally {
+      System.clearProperty(DefaultNativeRuntimeLoader.CACHE_DIR_PROPERTY);
+    }
+  }
+
   private static boolean hasResource(String name) {
     return Thread.currentThread().getContextClassLoader().getResource(name) != null;
   }
@@ -5,4 +5,11 @@ public interface TestEnvironmentLifecyclePlugin {
 
   /** Runs additional setup during TestEnvironment.before(). */
   void onSetupApplicationState();
+
+  /**
+   * Runs when the Application created for a previous test is reused, instead of {@code
+   * Application.onCreate()}, for tests with {@code @ReuseApplication(Reuse.ON)}. Plugins can reset
+   * any state held by the Application that must not leak between tests.
+   */
+  default void onApplicationReused() {}
 }
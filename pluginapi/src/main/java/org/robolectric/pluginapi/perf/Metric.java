@@ -1,20 +1,43 @@
 package org.robolectric.pluginapi.perf;
 
 import java.util.Objects;
-
-/** Metric for perf stats collection. */
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metric for perf stats collection.
+ *
+ * <p>Recording is lock-free: counters, including the buckets of the histogram, are striped across
+ * threads, so concurrent updates from many threads do not contend. Recorded durations are kept in a
+ * log-linear histogram, with a relative precision of 12.5%, from which percentiles can be
+ * estimated. Buckets are only allocated once a duration is recorded in them.
+ */
 public class Metric {
+  /** Number of histogram buckets for each power of two. */
+  private static final int SUB_BUCKET_BITS = 3;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /** Durations of 2^40 ns (about 18 minutes) and longer are all counted in the last buckets. */
+  private static final int MAX_EXPONENT = 40;
+
+  private static final int BUCKET_COUNT =
+      SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
   private final String name;
-  private int count;
-  private long elapsedNs;
-  private long minNs;
-  private long maxNs;
+  private final LongAdder count = new LongAdder();
+  private final LongAdder elapsedNs = new LongAdder();
+  private final LongAccumulator minNs = new LongAccumulator(Math::min, Long.MAX_VALUE);
+  private final LongAccumulator maxNs = new LongAccumulator(Math::max, 0);
+  private final AtomicReferenceArray<LongAdder> histogram =
+      new AtomicReferenceArray<>(BUCKET_COUNT);
   private final boolean success;
 
   public Metric(String name, int count, int elapsedNs, boolean success) {
     this.name = name;
-    this.count = count;
-    this.elapsedNs = elapsedNs;
+    this.count.add(count);
+    this.elapsedNs.add(elapsedNs);
     this.success = success;
   }
 
@@ -26,47 +49,123 @@ public class Metric {
     return name;
   }
 
-  public synchronized int getCount() {
-    return count;
+  public int getCount() {
+    return count.intValue();
   }
 
-  public synchronized long getElapsedNs() {
-    return elapsedNs;
+  public long getElapsedNs() {
+    return elapsedNs.sum();
   }
 
-  public synchronized long getMinNs() {
-    return minNs;
+  public long getMinNs() {
+    long min = minNs.get();
+    return min == Long.MAX_VALUE ? 0 : min;
   }
 
-  public synchronized long getMaxNs() {
-    return maxNs;
+  public long getMaxNs() {
+    return maxNs.get();
   }
 
   public boolean isSuccess() {
     return success;
   }
 
-  public synchronized void record(long elapsedNs) {
-    if (count == 0 || elapsedNs < minNs) {
-      minNs = elapsedNs;
+  /**
+   * Returns an estimate of the given percentile of the recorded durations, or 0 if no durations
+   * were recorded.
+   *
+   * @param percentile the percentile, between 0 and 100
+   */
+  public long getPercentileNs(double percentile) {
+    long[] bucketCounts = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      bucketCounts[i] = bucketCount(i);
+      total += bucketCounts[i];
     }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += bucketCounts[i];
+      if (seen >= rank) {
+        return Math.max(getMinNs(), Math.min(bucketUpperBound(i), getMaxNs()));
+      }
+    }
+    return getMaxNs();
+  }
+
+  public void record(long elapsedNs) {
+    minNs.accumulate(elapsedNs);
+    maxNs.accumulate(elapsedNs);
+    this.elapsedNs.add(elapsedNs);
+    bucket(bucketIndex(elapsedNs)).increment();
+    count.increment();
+  }
 
-    if (elapsedNs > maxNs) {
-      maxNs = elapsedNs;
+  public void incrementCount() {
+    count.increment();
+  }
+
+  /**
+   * Sets the count to the given value, overwriting any previous count. Concurrent increments may be
+   * lost.
+   */
+  public void recordCount(int count) {
+    this.count.reset();
+    this.count.add(count);
+  }
+
+  /** Adds the counts, durations and histogram of another metric to this one. */
+  public void merge(Metric other) {
+    count.add(other.count.sum());
+    elapsedNs.add(other.elapsedNs.sum());
+    minNs.accumulate(other.minNs.get());
+    maxNs.accumulate(other.maxNs.get());
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      long bucketCount = other.bucketCount(i);
+      if (bucketCount != 0) {
+        bucket(i).add(bucketCount);
+      }
     }
+  }
 
-    this.elapsedNs += elapsedNs;
+  private LongAdder bucket(int index) {
+    LongAdder bucket = histogram.get(index);
+    if (bucket == null) {
+      histogram.compareAndSet(index, null, new LongAdder());
+      bucket = histogram.get(index);
+    }
+    return bucket;
+  }
 
-    count++;
+  private long bucketCount(int index) {
+    LongAdder bucket = histogram.get(index);
+    return bucket == null ? 0 : bucket.sum();
   }
 
-  public synchronized void incrementCount() {
-    this.count++;
+  private static int bucketIndex(long valueNs) {
+    if (valueNs < SUB_BUCKET_COUNT) {
+      return (int) Math.max(0, valueNs);
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(valueNs);
+    if (exponent > MAX_EXPONENT) {
+      return BUCKET_COUNT - 1;
+    }
+    int subBucket = (int) (valueNs >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+    return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
   }
 
-  /** Sets the count to the given value, overwriting any previous count. */
-  public synchronized void recordCount(int count) {
-    this.count = count;
+  private static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int exponent = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS;
+    int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+    int shift = exponent - SUB_BUCKET_BITS;
+    return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
   }
 
   @Override
@@ -100,13 +199,13 @@ public class Metric {
         + name
         + '\''
         + ", count="
-        + count
+        + getCount()
         + ", minNs="
-        + minNs
+        + getMinNs()
         + ", maxNs="
-        + maxNs
+        + getMaxNs()
         + ", elapsedNs="
-        + elapsedNs
+        + getElapsedNs()
         + ", success="
         + success
         + '}';
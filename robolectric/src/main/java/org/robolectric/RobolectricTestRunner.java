@@ -326,7 +326,8 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     String tmpDirName = getTempDirName(bootstrappedMethod);
     roboMethod
         .getTestEnvironment()
-        .setUpApplicationState(tmpDirName, roboMethod.getConfiguration(), appManifest);
+        .setUpApplicationState(
+            getTestClass().getJavaClass(), tmpDirName, roboMethod.getConfiguration(), appManifest);
 
     roboMethod.testLifecycle.beforeTest(bootstrappedMethod);
   }
@@ -1,6 +1,7 @@
 package org.robolectric.android.internal;
 
 import static android.os.Build.VERSION_CODES.BAKLAVA;
+import static android.os.Build.VERSION_CODES.O;
 import static android.os.Build.VERSION_CODES.P;
 import static android.os.Build.VERSION_CODES.Q;
 import static android.os.Build.VERSION_CODES.R;
@@ -30,6 +31,7 @@ import android.os.Build.VERSION_CODES;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Parcel;
 import android.os.Process;
 import android.provider.FontsContract;
 import android.provider.MediaStore;
@@ -41,7 +43,11 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Provider;
 import java.security.Security;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
@@ -67,6 +73,7 @@ import org.robolectric.annotation.GraphicsMode;
 import org.robolectric.annotation.LooperMode;
 import org.robolectric.annotation.SQLiteMode;
 import org.robolectric.annotation.experimental.LazyApplication.LazyLoad;
+import org.robolectric.annotation.experimental.ReuseApplication.Reuse;
 import org.robolectric.config.ConfigurationRegistry;
 import org.robolectric.fakes.FakeMediaProvider;
 import org.robolectric.internal.ClassTracker;
@@ -115,6 +122,22 @@ public class AndroidTestEnvironment implements TestEnvironment {
   // initialized lazily as some platforms may not support it.
   private static final AtomicReference<OpenSSLProvider> cachedConscryptProvider =
       new AtomicReference<>();
+  private static final HostnameVerifier CONSCRYPT_HOSTNAME_VERIFIER =
+      new HostnameVerifier() {
+        private final OkHostnameVerifier conscryptVerifier = OkHostnameVerifier.INSTANCE;
+
+        @Override
+        public boolean verify(String hostname, SSLSession session) {
+          try {
+            Certificate[] certificates = session.getPeerCertificates();
+            X509Certificate[] x509Certificates =
+                Arrays.copyOf(certificates, certificates.length, X509Certificate[].class);
+            return conscryptVerifier.verify(x509Certificates, hostname, session);
+          } catch (SSLException e) {
+            return false;
+          }
+        }
+      };
 
   private final Sdk compileSdk;
 
@@ -127,6 +150,16 @@ public class AndroidTestEnvironment implements TestEnvironment {
   private final TestEnvironmentLifecyclePlugin[] testEnvironmentLifecyclePlugins;
   private final Locale initialLocale = Locale.getDefault();
 
+  // The last parsed app package, reused by later tests in this sandbox if the APK is unchanged.
+  private ParsedPackageTemplate appPackageTemplate;
+
+  // The test class of the test being set up, if known.
+  private Class<?> nextTestClass;
+  // Whether the current test reuses the Application of the previous test of its class.
+  private boolean reuseApplication;
+  private Class<?> reusableApplicationTestClass;
+  private Application reusableApplication;
+
   public AndroidTestEnvironment(
       @Named("runtimeSdk") Sdk runtimeSdk,
       @Named("compileSdk") Sdk compileSdk,
@@ -142,12 +175,30 @@ public class AndroidTestEnvironment implements TestEnvironment {
     reflector(RuntimeEnvironmentReflector.class).setApiLevel(apiLevel);
   }
 
+  @Override
+  public void setUpApplicationState(
+      Class<?> testClass,
+      String tmpDirName,
+      Configuration configuration,
+      AndroidManifest appManifest) {
+    nextTestClass = testClass;
+    setUpApplicationState(tmpDirName, configuration, appManifest);
+  }
+
   @Override
   public void setUpApplicationState(
       String tmpDirName, Configuration configuration, AndroidManifest appManifest) {
     Preconditions.checkArgument(tmpDirName != null && !tmpDirName.isEmpty());
     Config config = configuration.get(Config.class);
 
+    Class<?> testClass = nextTestClass;
+    nextTestClass = null;
+    reuseApplication = testClass != null && configuration.get(Reuse.class) == Reuse.ON;
+    if (!reuseApplication || testClass != reusableApplicationTestClass) {
+      terminateReusableApplication();
+    }
+    reusableApplicationTestClass = reuseApplication ? testClass : null;
+
     ConfigurationRegistry.instance = new ConfigurationRegistry(configuration.map());
 
     for (TestEnvironmentLifecyclePlugin e : testEnvironmentLifecyclePlugins) {
@@ -174,47 +225,14 @@ public class AndroidTestEnvironment implements TestEnvironment {
       loggingInitialized = true;
     }
 
-    ConscryptMode.Mode conscryptMode = configuration.get(ConscryptMode.Mode.class);
-    Security.removeProvider(CONSCRYPT_PROVIDER);
-    if (conscryptMode != ConscryptMode.Mode.OFF) {
-
-      Security.removeProvider(BouncyCastleProvider.PROVIDER_NAME);
-      if (Security.getProvider(CONSCRYPT_PROVIDER) == null) {
-        OpenSSLProvider conscryptProvider = cachedConscryptProvider.get();
-        if (conscryptProvider == null) {
-          conscryptProvider = createConscryptProvider();
-          cachedConscryptProvider.set(conscryptProvider);
-        }
-        Security.insertProviderAt(conscryptProvider, 1);
-      }
-
-      HttpsURLConnection.setDefaultHostnameVerifier(
-          new HostnameVerifier() {
-            private final OkHostnameVerifier conscryptVerifier = OkHostnameVerifier.INSTANCE;
-
-            @Override
-            public boolean verify(String hostname, SSLSession session) {
-              try {
-                Certificate[] certificates = session.getPeerCertificates();
-                X509Certificate[] x509Certificates =
-                    Arrays.copyOf(certificates, certificates.length, X509Certificate[].class);
-                return conscryptVerifier.verify(x509Certificates, hostname, session);
-              } catch (SSLException e) {
-                return false;
-              }
-            }
-          });
-    }
-
-    if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
-      Security.addProvider(BOUNCY_CASTLE_PROVIDER);
-    }
+    installSecurityProviders(configuration.get(ConscryptMode.Mode.class));
 
     android.content.res.Configuration androidConfiguration =
         new android.content.res.Configuration();
     DisplayMetrics displayMetrics = new DisplayMetrics();
 
-    Bootstrap.applyQualifiers(config.qualifiers(), apiLevel, androidConfiguration, displayMetrics);
+    Bootstrap.applyQualifiersToNewConfiguration(
+        config.qualifiers(), apiLevel, androidConfiguration, displayMetrics);
 
     androidConfiguration.fontScale = config.fontScale();
 
@@ -267,6 +285,47 @@ public class AndroidTestEnvironment implements TestEnvironment {
     }
   }
 
+  /**
+   * Installs Conscrypt as the first security provider and BouncyCastle as the last one, or only
+   * BouncyCastle if Conscrypt is off.
+   *
+   * <p>The provider list is only modified if it isn't already in that state, which is usually the
+   * case when the previous test used the same mode. Modifying it invalidates the cached provider
+   * lookups of the JCA.
+   *
+   * @return whether the provider list was modified
+   */
+  @VisibleForTesting
+  static boolean installSecurityProviders(ConscryptMode.Mode conscryptMode) {
+    boolean modified = false;
+    if (conscryptMode != ConscryptMode.Mode.OFF) {
+      OpenSSLProvider conscryptProvider = cachedConscryptProvider.get();
+      if (conscryptProvider == null) {
+        conscryptProvider = createConscryptProvider();
+        cachedConscryptProvider.set(conscryptProvider);
+      }
+      Provider[] providers = Security.getProviders();
+      if (providers.length < 2
+          || providers[0] != conscryptProvider
+          || providers[providers.length - 1] != BOUNCY_CASTLE_PROVIDER) {
+        Security.removeProvider(CONSCRYPT_PROVIDER);
+        Security.removeProvider(BouncyCastleProvider.PROVIDER_NAME);
+        Security.insertProviderAt(conscryptProvider, 1);
+        modified = true;
+      }
+      HttpsURLConnection.setDefaultHostnameVerifier(CONSCRYPT_HOSTNAME_VERIFIER);
+    } else if (Security.getProvider(CONSCRYPT_PROVIDER) != null) {
+      Security.removeProvider(CONSCRYPT_PROVIDER);
+      modified = true;
+    }
+
+    if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+      Security.addProvider(BOUNCY_CASTLE_PROVIDER);
+      modified = true;
+    }
+    return modified;
+  }
+
   // Remove XDH KeyPairGenerator from Conscrypt to prevent handshake failures
   // in the JVM's TLS stack (https://github.com/robolectric/robolectric/issues/11345).
   // Let XDH key generation fall back to the JDK, which interoperates fine with Conscrypt.
@@ -398,9 +457,15 @@ public class AndroidTestEnvironment implements TestEnvironment {
     ShadowPackageManager shadowPackageManager = Shadow.extract(contextImpl.getPackageManager());
     shadowPackageManager.addPackageInternal(parsedPackage);
 
-    // If we're SDK 28+ and have an AppComponentFactory, call through it if possible
     Application application;
-    if (loadedApk != null && apiLevel >= P && loadedApk.getAppFactory() != null) {
+    if (reusableApplication != null && reusableApplication.getClass() != applicationClass) {
+      terminateReusableApplication();
+    }
+    boolean reused = reusableApplication != null;
+    if (reused) {
+      application = reusableApplication;
+    } else if (loadedApk != null && apiLevel >= P && loadedApk.getAppFactory() != null) {
+      // If we're SDK 28+ and have an AppComponentFactory, call through it if possible
       try {
         application =
             loadedApk
@@ -417,7 +482,11 @@ public class AndroidTestEnvironment implements TestEnvironment {
 
     activityThreadReflector.setInitialApplication(application);
     ShadowApplication shadowApplication = Shadow.extract(application);
-    shadowApplication.callAttach(contextImpl);
+    if (reused) {
+      shadowApplication.callReattach(contextImpl);
+    } else {
+      shadowApplication.callAttach(contextImpl);
+    }
     reflector(ContextImplReflector.class, contextImpl).setOuterContext(application);
     if (apiLevel >= VERSION_CODES.O) {
       reflector(ContextImplReflector.class, contextImpl)
@@ -451,14 +520,35 @@ public class AndroidTestEnvironment implements TestEnvironment {
           Robolectric.setupContentProvider(FakeMediaProvider.class, MediaStore.AUTHORITY);
     }
 
-    PerfStatsCollector.getInstance()
-        .measure(
-            "application onCreate()",
-            () -> androidInstrumentation.callApplicationOnCreate(application));
+    if (reused) {
+      for (TestEnvironmentLifecyclePlugin e : testEnvironmentLifecyclePlugins) {
+        e.onApplicationReused();
+      }
+    } else {
+      PerfStatsCollector.getInstance()
+          .measure(
+              "application onCreate()",
+              () -> androidInstrumentation.callApplicationOnCreate(application));
+    }
+    if (reuseApplication) {
+      reusableApplication = application;
+    }
 
     return application;
   }
 
+  /**
+   * Terminates the Application kept for reuse, if any, as it won't be used by later tests. Its
+   * {@link Application#onTerminate()} wasn't called when the test that last used it was torn down.
+   */
+  private void terminateReusableApplication() {
+    Application application = reusableApplication;
+    reusableApplication = null;
+    if (application != null) {
+      application.onTerminate();
+    }
+  }
+
   private Package loadAppPackage(AndroidManifest appManifest) {
     return PerfStatsCollector.getInstance()
         .measure("parse package", () -> loadAppPackage_measured(appManifest));
@@ -474,7 +564,7 @@ public class AndroidTestEnvironment implements TestEnvironment {
 
     Path packageFile = appManifest.getApkFile();
     if (packageFile != null) {
-      parsedPackage = ShadowPackageParser.callParsePackage(packageFile);
+      parsedPackage = parsePackage(packageFile);
     } else {
       parsedPackage = new Package("org.robolectric.default");
     }
@@ -487,6 +577,62 @@ public class AndroidTestEnvironment implements TestEnvironment {
     return parsedPackage;
   }
 
+  /**
+   * Parses the given APK, or copies the package parsed by a previous test if the APK hasn't been
+   * modified since. Each test gets its own copy as tests may modify the package.
+   */
+  private Package parsePackage(Path packageFile) {
+    // PackageParser.Package is only Parcelable from O.
+    if (apiLevel < O) {
+      return ShadowPackageParser.callParsePackage(packageFile);
+    }
+    FileTime lastModifiedTime;
+    try {
+      lastModifiedTime = Files.getLastModifiedTime(packageFile);
+    } catch (IOException e) {
+      return ShadowPackageParser.callParsePackage(packageFile);
+    }
+    ParsedPackageTemplate template = appPackageTemplate;
+    if (template != null
+        && template.packageFile.equals(packageFile)
+        && template.lastModifiedTime.equals(lastModifiedTime)) {
+      return template.newPackage();
+    }
+    Package parsedPackage = ShadowPackageParser.callParsePackage(packageFile);
+    appPackageTemplate = new ParsedPackageTemplate(packageFile, lastModifiedTime, parsedPackage);
+    return parsedPackage;
+  }
+
+  /** A parsed package, marshalled so that copies of it can be created. */
+  private static final class ParsedPackageTemplate {
+    private final Path packageFile;
+    private final FileTime lastModifiedTime;
+    private final byte[] marshalledPackage;
+
+    ParsedPackageTemplate(Path packageFile, FileTime lastModifiedTime, Package parsedPackage) {
+      this.packageFile = packageFile;
+      this.lastModifiedTime = lastModifiedTime;
+      Parcel parcel = Parcel.obtain();
+      try {
+        parsedPackage.writeToParcel(parcel, 0);
+        this.marshalledPackage = parcel.marshall();
+      } finally {
+        parcel.recycle();
+      }
+    }
+
+    Package newPackage() {
+      Parcel parcel = Parcel.obtain();
+      try {
+        parcel.unmarshall(marshalledPackage, 0, marshalledPackage.length);
+        parcel.setDataPosition(0);
+        return new Package(parcel);
+      } finally {
+        parcel.recycle();
+      }
+    }
+  }
+
   @VisibleForTesting
   static Class<? extends Application> getApplicationClass(
       AndroidManifest appManifest, Config config, ApplicationInfo applicationInfo) {
@@ -599,9 +745,13 @@ public class AndroidTestEnvironment implements TestEnvironment {
   @Override
   public void tearDownApplication() {
     if (RuntimeEnvironment.application != null) {
-      ShadowInstrumentation.runOnMainSyncNoIdle(RuntimeEnvironment.getApplication()::onTerminate);
+      // An Application that may be reused by the next test is only terminated once it is discarded.
+      if (!reuseApplication) {
+        ShadowInstrumentation.runOnMainSyncNoIdle(RuntimeEnvironment.getApplication()::onTerminate);
+      }
       ShadowInstrumentation.getInstrumentation().finish(1, new Bundle());
     }
+    ShadowLog.flushStream();
     ImmutableList<RuntimeException> errors = ShadowView.getAndClear();
     if (!errors.isEmpty()) {
       throw combineThreadErrors(errors);
@@ -626,6 +776,7 @@ public class AndroidTestEnvironment implements TestEnvironment {
 
   @Override
   public void checkStateAfterTestFailure(Throwable t) throws Throwable {
+    ShadowLog.flushStream();
     ImmutableList<RuntimeException> errors = ShadowView.getAndClear();
     if (!errors.isEmpty()) {
       for (RuntimeException error : errors) {
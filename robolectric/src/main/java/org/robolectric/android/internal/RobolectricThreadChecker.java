@@ -11,6 +11,10 @@ import org.robolectric.shadows.ShadowLooper;
  * Performs thread checking when in INSTRUMENTATION_TEST Looper Mode where the test thread is
  * distinct from the main thread. No-op for other modes because everything is executed on the main
  * thread (except for manually created worker threads).
+ *
+ * <p>Control tasks that are run inline on the calling thread (see the {@code
+ * robolectric.looper.inlineControlTasks} system property) temporarily impersonate the main Looper
+ * thread, so they pass {@link #checkMainThread()}.
  */
 @SuppressWarnings("RestrictTo")
 public class RobolectricThreadChecker implements ThreadChecker {
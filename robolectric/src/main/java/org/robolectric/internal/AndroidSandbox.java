@@ -15,6 +15,7 @@ import org.robolectric.annotation.ResourcesMode;
 import org.robolectric.annotation.SQLiteMode;
 import org.robolectric.internal.bytecode.ClassInstrumentor;
 import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.ResourceProvider;
 import org.robolectric.internal.bytecode.Sandbox;
 import org.robolectric.internal.bytecode.SandboxClassLoader;
 import org.robolectric.internal.bytecode.ShadowProviders;
@@ -128,6 +129,14 @@ public class AndroidSandbox extends Sandbox {
       super(config, new UrlResourceProvider(toUrl(runtimeSdk.getJarPath())), classInstrumentor);
     }
 
+    /** Constructor for subclasses that read the runtime SDK jar through their own provider. */
+    protected SdkSandboxClassLoader(
+        InstrumentationConfiguration config,
+        ResourceProvider resourceProvider,
+        ClassInstrumentor classInstrumentor) {
+      super(config, resourceProvider, classInstrumentor);
+    }
+
     private static URL toUrl(Path path) {
       try {
         return path.toUri().toURL();
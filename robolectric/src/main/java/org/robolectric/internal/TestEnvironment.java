@@ -8,6 +8,15 @@ public interface TestEnvironment {
 
   void setUpApplicationState(String tmpDirName, Configuration config, AndroidManifest appManifest);
 
+  /**
+   * Sets up the application state for a test of the given test class. Environments that keep state
+   * across the tests of a class override this method.
+   */
+  default void setUpApplicationState(
+      Class<?> testClass, String tmpDirName, Configuration config, AndroidManifest appManifest) {
+    setUpApplicationState(tmpDirName, config, appManifest);
+  }
+
   void tearDownApplication();
 
   void checkStateAfterTestFailure(Throwable t) throws Throwable;
@@ -0,0 +1,22 @@
+package org.robolectric.plugins;
+
+import com.google.auto.service.AutoService;
+import java.util.Properties;
+import org.robolectric.annotation.experimental.ReuseApplication;
+import org.robolectric.annotation.experimental.ReuseApplication.Reuse;
+import org.robolectric.pluginapi.config.Configurer;
+import org.robolectric.plugins.config.SingleValueConfigurer;
+
+/**
+ * A {@link org.robolectric.pluginapi.config.Configurer} that reads the {@link ReuseApplication} to
+ * dictate whether Robolectric should reuse the Application under test for all tests of a test
+ * class.
+ */
+@AutoService(Configurer.class)
+public class ReuseApplicationConfigurer extends SingleValueConfigurer<ReuseApplication, Reuse> {
+
+  public ReuseApplicationConfigurer(
+      Properties systemProperties, PackagePropertiesLoader propertyFileLoader) {
+    super(ReuseApplication.class, Reuse.class, Reuse.OFF, propertyFileLoader, systemProperties);
+  }
+}
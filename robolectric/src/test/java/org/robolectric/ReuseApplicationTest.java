@@ -0,0 +1,67 @@
+package org.robolectric;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.widget.Toast;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.experimental.ReuseApplication;
+import org.robolectric.annotation.experimental.ReuseApplication.Reuse;
+
+/**
+ * Tests that the Application is only created once for all tests of a class with {@link
+ * ReuseApplication}, but that each test still gets a fresh environment.
+ */
+@RunWith(AndroidJUnit4.class)
+@ReuseApplication(Reuse.ON)
+@Config(application = ReuseApplicationTest.CountingApplication.class)
+public class ReuseApplicationTest {
+
+  @Test
+  public void firstTest_usesApplication() throws Exception {
+    verifyApplicationReused();
+  }
+
+  @Test
+  public void secondTest_usesApplication() throws Exception {
+    verifyApplicationReused();
+  }
+
+  private static void verifyApplicationReused() throws Exception {
+    Application application = RuntimeEnvironment.getApplication();
+    assertThat(application).isInstanceOf(CountingApplication.class);
+    assertThat(CountingApplication.onCreateCount).isEqualTo(1);
+    assertThat(CountingApplication.onTerminateCount).isEqualTo(0);
+
+    assertThat(application.getBaseContext()).isNotNull();
+    assertThat(application.getPackageManager().getPackageInfo(application.getPackageName(), 0))
+        .isNotNull();
+
+    // Whichever test runs second must not see the toast shown by the first one.
+    assertThat(shadowOf(application).getShownToasts()).isEmpty();
+    Toast.makeText(application, "toast", Toast.LENGTH_SHORT).show();
+    assertThat(shadowOf(application).getShownToasts()).hasSize(1);
+  }
+
+  /** An application that counts how many times it is created and terminated. */
+  public static class CountingApplication extends Application {
+    static int onCreateCount;
+    static int onTerminateCount;
+
+    @Override
+    public void onCreate() {
+      super.onCreate();
+      onCreateCount++;
+    }
+
+    @Override
+    public void onTerminate() {
+      super.onTerminate();
+      onTerminateCount++;
+    }
+  }
+}
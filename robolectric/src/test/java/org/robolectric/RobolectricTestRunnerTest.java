@@ -11,6 +11,8 @@ import android.app.Application;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Range;
+import android.util.Size;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -47,10 +49,12 @@ import org.junit.runners.MethodSorters;
 import org.robolectric.RobolectricTestRunner.RobolectricFrameworkMethod;
 import org.robolectric.android.internal.AndroidTestEnvironment;
 import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.experimental.LazyApplication;
 import org.robolectric.annotation.experimental.LazyApplication.LazyLoad;
 import org.robolectric.config.ConfigurationRegistry;
 import org.robolectric.internal.AndroidSandbox.TestEnvironmentSpec;
+import org.robolectric.internal.SandboxTestRunner;
 import org.robolectric.internal.ShadowProvider;
 import org.robolectric.junit.rules.SetSystemPropertyRule;
 import org.robolectric.manifest.AndroidManifest;
@@ -599,6 +603,106 @@ public class RobolectricTestRunnerTest {
         .inOrder();
   }
 
+  @Test
+  public void groupsTestsByExtraShadows() throws Exception {
+    RobolectricTestRunner runner = new SingleSdkRobolectricTestRunner(TestWithExtraShadows.class);
+    runner.run(notifier);
+    assertThat(startedTests())
+        .containsExactly("first_withShadow", "third_withShadow", "second_withoutShadow")
+        .inOrder();
+  }
+
+  @Test
+  public void groupsTestsByExtraShadows_disabled() throws Exception {
+    setSystemPropertyRule.set(SandboxTestRunner.GROUP_BY_EXTRA_SHADOWS_PROPERTY, "false");
+    RobolectricTestRunner runner = new SingleSdkRobolectricTestRunner(TestWithExtraShadows.class);
+    runner.run(notifier);
+    assertThat(startedTests())
+        .containsExactly("first_withShadow", "second_withoutShadow", "third_withShadow")
+        .inOrder();
+  }
+
+  @Test
+  public void groupsTestsByExtraShadows_keepsFixedMethodOrder() throws Exception {
+    RobolectricTestRunner runner =
+        new SingleSdkRobolectricTestRunner(TestWithExtraShadowsAndFixedOrder.class);
+    runner.run(notifier);
+    assertThat(startedTests())
+        .containsExactly("a_withShadow", "b_withoutShadow", "c_withShadow")
+        .inOrder();
+  }
+
+  @Test
+  public void groupsTestsByExtraShadows_respectsShadowOrder() throws Exception {
+    RobolectricTestRunner runner =
+        new SingleSdkRobolectricTestRunner(TestWithReorderedExtraShadows.class);
+    runner.run(notifier);
+    assertThat(startedTests())
+        .containsExactly("first_withShadows", "second_withoutShadows", "third_withReorderedShadows")
+        .inOrder();
+  }
+
+  private List<String> startedTests() {
+    List<String> startedTests = new ArrayList<>();
+    for (String event : events) {
+      if (event.startsWith("started: ")) {
+        startedTests.add(event.substring("started: ".length()));
+      }
+    }
+    return startedTests;
+  }
+
+  // Without @FixMethodOrder, JUnit runs these tests in the order first, second, third.
+  @Ignore
+  public static class TestWithExtraShadows {
+    @Test
+    @Config(shadows = ShadowRangeForGrouping.class)
+    public void first_withShadow() {}
+
+    @Test
+    public void second_withoutShadow() {}
+
+    @Test
+    @Config(shadows = ShadowRangeForGrouping.class)
+    public void third_withShadow() {}
+  }
+
+  @Ignore
+  @FixMethodOrder(MethodSorters.NAME_ASCENDING)
+  public static class TestWithExtraShadowsAndFixedOrder {
+    @Test
+    @Config(shadows = ShadowRangeForGrouping.class)
+    public void a_withShadow() {}
+
+    @Test
+    public void b_withoutShadow() {}
+
+    @Test
+    @Config(shadows = ShadowRangeForGrouping.class)
+    public void c_withShadow() {}
+  }
+
+  // Without @FixMethodOrder, JUnit runs these tests in the order first, second, third.
+  @Ignore
+  public static class TestWithReorderedExtraShadows {
+    @Test
+    @Config(shadows = {ShadowRangeForGrouping.class, ShadowSizeForGrouping.class})
+    public void first_withShadows() {}
+
+    @Test
+    public void second_withoutShadows() {}
+
+    @Test
+    @Config(shadows = {ShadowSizeForGrouping.class, ShadowRangeForGrouping.class})
+    public void third_withReorderedShadows() {}
+  }
+
+  @Implements(Range.class)
+  public static class ShadowRangeForGrouping {}
+
+  @Implements(Size.class)
+  public static class ShadowSizeForGrouping {}
+
   @Ignore("Enable this when doing performance analysis")
   @Test
   @Config(sdk = Config.NEWEST_SDK)
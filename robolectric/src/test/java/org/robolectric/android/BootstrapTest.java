@@ -397,6 +397,29 @@ public class BootstrapTest {
     assertThat(outQualifiers).contains("-xxhdpi-");
   }
 
+  @Test
+  public void applyQualifiersToNewConfiguration_shouldMatchApplyQualifiers() {
+    String qualifiers = "fr-rCA-w321dp-h654dp-land-night-xhdpi";
+    Bootstrap.applyQualifiers(
+        qualifiers, RuntimeEnvironment.getApiLevel(), configuration, displayMetrics);
+
+    for (int i = 0; i < 2; i++) {
+      Configuration newConfiguration = new Configuration();
+      DisplayMetrics newDisplayMetrics = new DisplayMetrics();
+      Bootstrap.applyQualifiersToNewConfiguration(
+          qualifiers, RuntimeEnvironment.getApiLevel(), newConfiguration, newDisplayMetrics);
+
+      assertThat(newConfiguration).isEqualTo(configuration);
+      assertThat(newDisplayMetrics.equals(displayMetrics)).isTrue();
+      assertThat(RuntimeEnvironment.getQualifiers(newConfiguration, newDisplayMetrics))
+          .isEqualTo(RuntimeEnvironment.getQualifiers(configuration, displayMetrics));
+
+      // Modifying the results must not affect the cached ones.
+      newConfiguration.screenWidthDp = 1;
+      newDisplayMetrics.widthPixels = 1;
+    }
+  }
+
   @Test
   @Config(minSdk = N)
   public void testUpdateDisplayResourcesWithDifferentLocale() {
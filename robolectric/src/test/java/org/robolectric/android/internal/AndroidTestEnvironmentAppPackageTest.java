@@ -0,0 +1,46 @@
+package org.robolectric.android.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests that each test gets its own copy of the app package, even though it is only parsed once per
+ * sandbox. Both tests modify the package, so whichever test runs second would see the changes of
+ * the first one if the package was shared.
+ */
+@RunWith(AndroidJUnit4.class)
+public final class AndroidTestEnvironmentAppPackageTest {
+
+  @Test
+  public void firstTest_modifiesApplicationInfo() throws Exception {
+    verifyAndModifyAppPackage();
+  }
+
+  @Test
+  public void secondTest_modifiesApplicationInfo() throws Exception {
+    verifyAndModifyAppPackage();
+  }
+
+  private static void verifyAndModifyAppPackage() throws Exception {
+    Application application = ApplicationProvider.getApplicationContext();
+    ApplicationInfo applicationInfo = application.getApplicationInfo();
+    assertThat(applicationInfo.nonLocalizedLabel).isNull();
+    assertThat(applicationInfo.className).isEqualTo(application.getClass().getName());
+
+    PackageInfo packageInfo =
+        application
+            .getPackageManager()
+            .getPackageInfo(application.getPackageName(), PackageManager.GET_ACTIVITIES);
+    assertThat(packageInfo.activities).isNotEmpty();
+
+    applicationInfo.nonLocalizedLabel = "modified by test";
+  }
+}
@@ -0,0 +1,81 @@
+package org.robolectric.android.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.security.Provider;
+import java.security.Security;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.ConscryptMode;
+import org.robolectric.annotation.ConscryptMode.Mode;
+
+/**
+ * Tests that the security providers are installed in the expected order, and that tests with the
+ * same {@link ConscryptMode} keep using the same providers.
+ */
+@RunWith(AndroidJUnit4.class)
+@ConscryptMode(Mode.ON)
+public final class AndroidTestEnvironmentSecurityProvidersTest {
+  private static Provider[] previousProviders;
+
+  @Test
+  public void firstTest_hasProviders() {
+    verifyProviders();
+  }
+
+  @Test
+  public void secondTest_hasProviders() {
+    verifyProviders();
+  }
+
+  @Test
+  public void installSecurityProviders_sameMode_doesNotModifyProviders() {
+    Provider[] providers = Security.getProviders();
+
+    assertThat(AndroidTestEnvironment.installSecurityProviders(Mode.ON)).isFalse();
+
+    assertSameProviders(Security.getProviders(), providers);
+  }
+
+  @Test
+  public void installSecurityProviders_misplacedProvider_reinstallsProviders() {
+    Provider bouncyCastle = Security.getProvider("BC");
+    Security.removeProvider("BC");
+    Security.insertProviderAt(bouncyCastle, 1);
+
+    assertThat(AndroidTestEnvironment.installSecurityProviders(Mode.ON)).isTrue();
+
+    Provider[] providers = Security.getProviders();
+    assertThat(providers[0].getName()).isEqualTo("Conscrypt");
+    assertThat(providers[providers.length - 1]).isSameInstanceAs(bouncyCastle);
+  }
+
+  @Test
+  public void installSecurityProviders_otherMode_modifiesProviders() {
+    Provider conscrypt = Security.getProvider("Conscrypt");
+
+    assertThat(AndroidTestEnvironment.installSecurityProviders(Mode.OFF)).isTrue();
+    assertThat(Security.getProvider("Conscrypt")).isNull();
+
+    assertThat(AndroidTestEnvironment.installSecurityProviders(Mode.ON)).isTrue();
+    assertThat(Security.getProviders()[0]).isSameInstanceAs(conscrypt);
+  }
+
+  private static void verifyProviders() {
+    Provider[] providers = Security.getProviders();
+    assertThat(providers[0].getName()).isEqualTo("Conscrypt");
+    assertThat(providers[providers.length - 1].getName()).isEqualTo("BC");
+    if (previousProviders != null) {
+      assertSameProviders(providers, previousProviders);
+    }
+    previousProviders = providers;
+  }
+
+  private static void assertSameProviders(Provider[] actual, Provider[] expected) {
+    assertThat(actual).hasLength(expected.length);
+    for (int i = 0; i < actual.length; i++) {
+      assertThat(actual[i]).isSameInstanceAs(expected[i]);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package org.robolectric.plugins;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.annotation.experimental.ReuseApplication.Reuse.OFF;
+import static org.robolectric.annotation.experimental.ReuseApplication.Reuse.ON;
+
+import java.util.Properties;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit test for {@link ReuseApplicationConfigurer} */
+@RunWith(JUnit4.class)
+public class ReuseApplicationConfigurerTest {
+
+  private final ReuseApplicationConfigurer configurer =
+      new ReuseApplicationConfigurer(new Properties(), new PackagePropertiesLoader());
+
+  @Test
+  public void defaultConfig_isOff() {
+    assertThat(configurer.defaultConfig()).isEqualTo(OFF);
+  }
+
+  @Test
+  public void merge_explicitChildConfigOverridesParent() {
+    assertThat(configurer.merge(ON, OFF)).isEqualTo(OFF);
+    assertThat(configurer.merge(OFF, ON)).isEqualTo(ON);
+  }
+}
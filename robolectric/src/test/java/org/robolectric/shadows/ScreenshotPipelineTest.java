@@ -0,0 +1,90 @@
+package org.robolectric.shadows;
+
+import static android.os.Build.VERSION_CODES.O;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.annotation.GraphicsMode.Mode;
+
+@RunWith(AndroidJUnit4.class)
+@Config(minSdk = O)
+@GraphicsMode(Mode.NATIVE)
+public class ScreenshotPipelineTest {
+  private final ScreenshotPipeline pipeline = new ScreenshotPipeline(2, 1);
+  private View view;
+
+  @Before
+  public void setUp() {
+    Activity activity = Robolectric.setupActivity(Activity.class);
+    view = new View(activity);
+    view.setBackgroundColor(Color.RED);
+    ((ViewGroup) activity.findViewById(android.R.id.content))
+        .addView(view, new ViewGroup.LayoutParams(100, 50));
+    view.measure(
+        View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(50, View.MeasureSpec.EXACTLY));
+    view.layout(0, 0, 100, 50);
+  }
+
+  @After
+  public void tearDown() {
+    pipeline.close();
+  }
+
+  @Test
+  public void captureAsPng_encodesScreenshot() throws Exception {
+    byte[] png = pipeline.captureAsPng(view).get();
+
+    Bitmap decoded = BitmapFactory.decodeByteArray(png, 0, png.length);
+    assertThat(decoded.getWidth()).isEqualTo(100);
+    assertThat(decoded.getHeight()).isEqualTo(50);
+    assertThat(decoded.getPixel(10, 10)).isEqualTo(Color.RED);
+  }
+
+  @Test
+  public void captureAsPng_moreThanMaxPending() throws Exception {
+    Future<byte[]> first = pipeline.captureAsPng(view);
+    Future<byte[]> second = pipeline.captureAsPng(view);
+
+    assertThat(first.get()).isEqualTo(second.get());
+  }
+
+  @Test
+  public void encodeAsPng_encodesCopyOfBitmap() throws Exception {
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    bitmap.eraseColor(Color.BLUE);
+
+    Future<byte[]> png = pipeline.encodeAsPng(bitmap);
+    bitmap.eraseColor(Color.GREEN);
+
+    byte[] bytes = png.get();
+    assertThat(BitmapFactory.decodeByteArray(bytes, 0, bytes.length).getPixel(5, 5))
+        .isEqualTo(Color.BLUE);
+  }
+
+  @Test
+  public void captureAndCompare() throws Exception {
+    Bitmap expected = Bitmap.createBitmap(100, 50, Bitmap.Config.ARGB_8888);
+    expected.eraseColor(Color.rgb(254, 0, 1));
+
+    assertThat(pipeline.captureAndCompare(view, expected, 1).get().matches()).isTrue();
+
+    ScreenshotPipeline.Comparison comparison = pipeline.captureAndCompare(view, expected, 0).get();
+    assertThat(comparison.matches()).isFalse();
+    assertThat(comparison.getDifferentPixelCount()).isEqualTo(100 * 50);
+  }
+}
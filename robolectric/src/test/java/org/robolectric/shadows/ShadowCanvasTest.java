@@ -590,4 +590,35 @@ public class ShadowCanvasTest {
   public void getClipBounds_nullBounds_throwsNPE() {
     assertThrows(NullPointerException.class, () -> new Canvas().getClipBounds(null));
   }
+
+  @Test
+  public void shouldDescribeBitmapAsItWasWhenDrawn() {
+    Canvas canvas = new Canvas(targetBitmap);
+    canvas.drawBitmap(imageBitmap, 1, 2, new Paint());
+    shadowOf(imageBitmap).appendDescription(" modified later");
+
+    assertThat(shadowOf(canvas).getDescription())
+        .isEqualTo("Bitmap for file:/an/image.jpg at (1,2)");
+  }
+
+  @Test
+  public void setRecordDrawHistory_false_shouldNotRecordDrawOperations() {
+    ShadowLegacyCanvas.setRecordDrawHistory(false);
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    Paint paint = new Paint();
+    paint.setColor(Color.WHITE);
+    canvas.drawRect(0, 0, 10, 10, paint);
+    canvas.drawCircle(5, 5, 2, paint);
+    canvas.drawText("hello", 1, 2, paint);
+    canvas.drawBitmap(imageBitmap, 1, 2, paint);
+
+    ShadowCanvas shadowCanvas = shadowOf(canvas);
+    assertThat(shadowCanvas.getDescription()).isEmpty();
+    assertThat(shadowCanvas.getRectPaintHistoryCount()).isEqualTo(0);
+    assertThat(shadowCanvas.getCirclePaintHistoryCount()).isEqualTo(0);
+    assertThat(shadowCanvas.getTextHistoryCount()).isEqualTo(0);
+    // The bitmap is still drawn into.
+    assertThat(bitmap.getPixel(0, 0)).isEqualTo(Color.WHITE);
+  }
 }
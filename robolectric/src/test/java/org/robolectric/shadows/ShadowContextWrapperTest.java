@@ -507,6 +507,28 @@ public class ShadowContextWrapperTest {
     asyncAssertThat(transcript).containsExactly("High notified of test", "Low notified of test");
   }
 
+  @Test
+  public void sendOrderedBroadcast_samePriority_shouldSendInRegistrationOrder() {
+    String action = "test";
+
+    IntentFilter highFilter = new IntentFilter(action);
+    highFilter.setPriority(2);
+    contextWrapper.registerReceiver(broadcastReceiver("First"), highFilter);
+    contextWrapper.registerReceiver(broadcastReceiver("Other"), intentFilter("other"));
+    contextWrapper.registerReceiver(broadcastReceiver("Low"), intentFilter(action));
+    BroadcastReceiver unregisteredReceiver = broadcastReceiver("Unregistered");
+    contextWrapper.registerReceiver(unregisteredReceiver, highFilter);
+    contextWrapper.registerReceiver(broadcastReceiver("Second"), highFilter);
+    contextWrapper.unregisterReceiver(unregisteredReceiver);
+
+    contextWrapper.sendOrderedBroadcast(new Intent(action), null);
+    shadowMainLooper().idle();
+    asyncAssertThat(transcript)
+        .containsExactly(
+            "First notified of test", "Second notified of test", "Low notified of test")
+        .inOrder();
+  }
+
   @Test
   public void orderedBroadcasts_shouldAbort() {
     String action = "test";
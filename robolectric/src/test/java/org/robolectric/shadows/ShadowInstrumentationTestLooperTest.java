@@ -15,6 +15,7 @@ import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
@@ -55,6 +56,35 @@ public class ShadowInstrumentationTestLooperTest {
     assertTrue(hasRun.get());
   }
 
+  @Test
+  public void pauseMainLooper_inlineControlTasks_idleExecutesOnCallingThread() {
+    System.setProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY, "true");
+    try {
+      ShadowLooper shadowMainLooper = shadowOf(Looper.getMainLooper());
+      Thread mainThread = Looper.getMainLooper().getThread();
+      shadowMainLooper.pause();
+      AtomicReference<Thread> threadRef = new AtomicReference<>();
+      AtomicReference<Looper> looperRef = new AtomicReference<>();
+      new Handler(Looper.getMainLooper())
+          .post(
+              () -> {
+                threadRef.set(Thread.currentThread());
+                looperRef.set(Looper.myLooper());
+              });
+      shadowMainLooper.idle();
+
+      assertThat(threadRef.get()).isEqualTo(Thread.currentThread());
+      assertThat(looperRef.get()).isSameInstanceAs(Looper.getMainLooper());
+      assertThat(Looper.getMainLooper().getThread()).isEqualTo(mainThread);
+      assertFalse(Looper.getMainLooper().isCurrentThread());
+
+      shadowMainLooper.unPause();
+      assertFalse(shadowMainLooper.isPaused());
+    } finally {
+      System.clearProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY);
+    }
+  }
+
   @Test
   public void unpauseMainLooper() throws InterruptedException {
     ShadowLooper shadowMainLooper = shadowOf(Looper.getMainLooper());
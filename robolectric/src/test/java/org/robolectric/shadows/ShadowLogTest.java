@@ -15,6 +15,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.common.collect.Iterables;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -206,6 +207,107 @@ public class ShadowLogTest {
     }
   }
 
+  @Test
+  public void shouldLogToProvidedStream_async() {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    PrintStream old = ShadowLog.stream;
+    ShadowLog.setAsyncStreamEnabled(true);
+    try {
+      ShadowLog.stream = new PrintStream(bos);
+      Log.d("tag", "msg");
+      Log.i("tag", "msg2");
+      ShadowLog.flushStream();
+      assertThat(new String(bos.toByteArray(), UTF_8))
+          .isEqualTo(
+              "D/tag: msg" + System.lineSeparator() + "I/tag: msg2" + System.lineSeparator());
+
+      Log.w("tag", new RuntimeException());
+      ShadowLog.flushStream();
+      assertTrue(new String(bos.toByteArray(), UTF_8).contains("RuntimeException"));
+    } finally {
+      ShadowLog.setAsyncStreamEnabled(false);
+      ShadowLog.stream = old;
+    }
+  }
+
+  @Test
+  public void asyncLogWriter_writeAfterClose_writesSynchronously() {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    PrintStream stream = new PrintStream(bos);
+    AsyncLogWriter writer = new AsyncLogWriter();
+
+    writer.write(stream, null, Log.DEBUG, "tag", "before close", null);
+    writer.close();
+    writer.write(stream, null, Log.DEBUG, "tag", "after close", null);
+
+    assertThat(new String(bos.toByteArray(), UTF_8))
+        .isEqualTo(
+            "D/tag: before close"
+                + System.lineSeparator()
+                + "D/tag: after close"
+                + System.lineSeparator());
+    // Returns although the writer thread has stopped.
+    writer.flush();
+  }
+
+  @Test
+  public void asyncLogWriter_closeWhileWriting_keepsAllLogLines() throws Exception {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    PrintStream stream = new PrintStream(bos);
+    AsyncLogWriter writer = new AsyncLogWriter();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      String tag = "tag" + i;
+      threads.add(
+          new Thread(
+              () -> {
+                for (int j = 0; j < 10_000; j++) {
+                  writer.write(stream, null, Log.DEBUG, tag, "msg" + j, null);
+                }
+              }));
+    }
+
+    threads.forEach(Thread::start);
+    writer.close();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    writer.flush();
+
+    assertThat(new String(bos.toByteArray(), UTF_8).split(System.lineSeparator()))
+        .hasLength(40_000);
+  }
+
+  @Test
+  public void setAsyncStreamEnabled_false_stopsWriterThread() {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    PrintStream old = ShadowLog.stream;
+    try {
+      ShadowLog.stream = new PrintStream(bos);
+      for (int i = 0; i < 3; i++) {
+        ShadowLog.setAsyncStreamEnabled(true);
+        Log.d("tag", "msg" + i);
+        ShadowLog.setAsyncStreamEnabled(false);
+      }
+
+      assertThat(new String(bos.toByteArray(), UTF_8))
+          .isEqualTo(
+              "D/tag: msg0"
+                  + System.lineSeparator()
+                  + "D/tag: msg1"
+                  + System.lineSeparator()
+                  + "D/tag: msg2"
+                  + System.lineSeparator());
+      assertThat(
+              Thread.getAllStackTraces().keySet().stream()
+                  .map(Thread::getName)
+                  .filter("Robolectric log writer"::equals))
+          .isEmpty();
+    } finally {
+      ShadowLog.stream = old;
+    }
+  }
+
   private static RuntimeException specificMethodName() {
     return new RuntimeException();
   }
@@ -235,6 +337,64 @@ public class ShadowLogTest {
     assertUniformLogsForTag("tag3", 1);
   }
 
+  @Test
+  public void setMaxLogsPerTag_retainsMostRecentLogsPerTag() {
+    ShadowLog.setMaxLogsPerTag(2);
+    try {
+      Log.d("tag1", "1");
+      Log.d("tag1", "2");
+      Log.i("tag2", "3");
+      Log.d("tag1", "4");
+      Log.i("tag2", "5");
+      Log.i("tag2", "6");
+
+      assertThat(ShadowLog.getLogsForTag("tag1").stream().map(item -> item.msg))
+          .containsExactly("2", "4")
+          .inOrder();
+      assertThat(ShadowLog.getLogsForTag("tag2").stream().map(item -> item.msg))
+          .containsExactly("5", "6")
+          .inOrder();
+      assertThat(ShadowLog.getLogs().stream().map(item -> item.msg))
+          .containsExactly("2", "4", "5", "6")
+          .inOrder();
+    } finally {
+      ShadowLog.setMaxLogsPerTag(Integer.MAX_VALUE);
+    }
+  }
+
+  @Test
+  public void setMaxLogsPerTag_writesEvictedLogsToOverflowStream() {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ShadowLog.setMaxLogsPerTag(1);
+    ShadowLog.setOverflowStream(new PrintStream(bos));
+    try {
+      Log.d("tag", "1");
+      Log.d("tag", "2");
+      Log.d("tag", "3");
+
+      assertThat(new String(bos.toByteArray(), UTF_8))
+          .isEqualTo("D/tag: 1" + System.lineSeparator() + "D/tag: 2" + System.lineSeparator());
+      assertThat(ShadowLog.getLogsForTag("tag")).hasSize(1);
+    } finally {
+      ShadowLog.setMaxLogsPerTag(Integer.MAX_VALUE);
+      ShadowLog.setOverflowStream(null);
+    }
+  }
+
+  @Test
+  public void reset_restoresMaxLogsPerTagAndOverflowStream() {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ShadowLog.setMaxLogsPerTag(1);
+    ShadowLog.setOverflowStream(new PrintStream(bos));
+
+    ShadowLog.reset();
+    Log.d("tag", "1");
+    Log.d("tag", "2");
+
+    assertThat(ShadowLog.getLogsForTag("tag")).hasSize(2);
+    assertThat(bos.toByteArray()).isEmpty();
+  }
+
   private static void assertUniformLogsForTag(String tag, int count) {
     List<LogItem> tag1Items = ShadowLog.getLogsForTag(tag);
     assertThat(tag1Items).hasSize(count);
@@ -1692,6 +1692,61 @@ public class ShadowPackageManagerTest {
     assertThat(intent.resolveActivity(packageManager)).isNull();
   }
 
+  @Test
+  public void queryIntentActivities_manyComponents_resolvesOnlyMatchingFilters() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      ComponentName component = new ComponentName("package" + i, "name");
+      IntentFilter intentFilter = new IntentFilter("ACTION" + i);
+      intentFilter.addCategory(Intent.CATEGORY_DEFAULT);
+      intentFilter.addDataScheme("scheme" + (i % 2));
+      shadowOf(packageManager).addActivityIfNotPresent(component);
+      shadowOf(packageManager).addIntentFilterForActivity(component, intentFilter);
+    }
+    ComponentName component = new ComponentName("package42", "name");
+    Intent intent = new Intent("ACTION42", Uri.parse("scheme0://host"));
+
+    assertThat(intent.resolveActivity(packageManager)).isEqualTo(component);
+    assertThat(packageManager.queryIntentActivities(intent, 0)).hasSize(1);
+    assertThat(
+            packageManager.queryIntentActivities(
+                new Intent("ACTION42", Uri.parse("scheme1://host")), 0))
+        .isEmpty();
+
+    shadowOf(packageManager).clearIntentFilterForActivity(component);
+    assertThat(intent.resolveActivity(packageManager)).isNull();
+
+    shadowOf(packageManager)
+        .addIntentFilterForActivity(component, new IntentFilter("ACTION42", "text/plain"));
+    assertThat(packageManager.queryIntentActivities(new Intent("ACTION42"), 0)).isEmpty();
+    assertThat(
+            packageManager.queryIntentActivities(new Intent("ACTION42").setType("text/plain"), 0))
+        .hasSize(1);
+
+    shadowOf(packageManager).deletePackage("package42");
+    assertThat(
+            packageManager.queryIntentActivities(new Intent("ACTION42").setType("text/plain"), 0))
+        .isEmpty();
+  }
+
+  @Test
+  public void addIntentFilterForActivity_laterChangesToFilterHaveNoEffect() throws Exception {
+    ComponentName component = new ComponentName("package", "name");
+    IntentFilter intentFilter = new IntentFilter("ACTION");
+    intentFilter.addCategory(Intent.CATEGORY_DEFAULT);
+    shadowOf(packageManager).addActivityIfNotPresent(component);
+    shadowOf(packageManager).addIntentFilterForActivity(component, intentFilter);
+
+    intentFilter.addAction("OTHER_ACTION");
+    shadowOf(packageManager).getIntentFiltersForActivity(component).get(0).addAction("THIRD");
+
+    assertThat(new Intent("ACTION").resolveActivity(packageManager)).isEqualTo(component);
+    assertThat(packageManager.queryIntentActivities(new Intent("OTHER_ACTION"), 0)).isEmpty();
+    assertThat(packageManager.queryIntentActivities(new Intent("THIRD"), 0)).isEmpty();
+    assertThat(
+            shadowOf(packageManager).getIntentFiltersForActivity(component).get(0).countActions())
+        .isEqualTo(1);
+  }
+
   @Test
   public void resolveActivity_NoMatch() {
     Intent i = new Intent();
@@ -27,6 +27,7 @@ import java.time.Duration;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -150,6 +151,90 @@ public class ShadowPausedLooperTest {
     assertThat(getMainLooper().getThread()).isNotEqualTo(threadRef.get());
   }
 
+  @Test
+  public void idle_pausedBackgroundLooper_inlineControlTasks_executesOnCallingThread() {
+    System.setProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY, "true");
+    try {
+      Looper looper = handlerThread.getLooper();
+      shadowOf(looper).pause();
+      Ref<Thread> threadRef = new Ref<>(null);
+      Ref<Looper> looperRef = new Ref<>(null);
+      Ref<Thread> looperThreadRef = new Ref<>(null);
+      new Handler(looper)
+          .post(
+              () -> {
+                threadRef.set(Thread.currentThread());
+                looperRef.set(Looper.myLooper());
+                looperThreadRef.set(looper.getThread());
+              });
+      shadowOf(looper).idle();
+
+      assertThat(threadRef.get()).isEqualTo(Thread.currentThread());
+      assertThat(looperThreadRef.get()).isEqualTo(Thread.currentThread());
+      assertThat(looperRef.get()).isSameInstanceAs(looper);
+      assertThat(Looper.myLooper()).isSameInstanceAs(getMainLooper());
+      assertThat(looper.getThread()).isEqualTo(handlerThread);
+    } finally {
+      System.clearProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY);
+    }
+  }
+
+  @Test
+  public void unPause_pausedBackgroundLooper_inlineControlTasks_resumesLooperThread() {
+    System.setProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY, "true");
+    try {
+      ShadowLooper shadowLooper = shadowOf(handlerThread.getLooper());
+      shadowLooper.pause();
+      shadowLooper.unPause();
+      assertThat(shadowLooper.isPaused()).isFalse();
+
+      Ref<Thread> threadRef = new Ref<>(null);
+      new Handler(handlerThread.getLooper()).post(() -> threadRef.set(Thread.currentThread()));
+      shadowLooper.idle();
+      assertThat(threadRef.get()).isEqualTo(handlerThread);
+    } finally {
+      System.clearProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY);
+    }
+  }
+
+  @Test
+  public void idle_pausedBackgroundLooper_inlineControlTasks_queuedTaskWaitsForInlineTask()
+      throws Exception {
+    System.setProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY, "true");
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      ShadowLooper shadowLooper = shadowOf(handlerThread.getLooper());
+      shadowLooper.pause();
+      CountDownLatch inlineTaskStarted = new CountDownLatch(1);
+      CountDownLatch finishInlineTask = new CountDownLatch(1);
+      new Handler(handlerThread.getLooper())
+          .post(
+              () -> {
+                inlineTaskStarted.countDown();
+                try {
+                  finishInlineTask.await();
+                } catch (InterruptedException e) {
+                  throw new AssertionError(e);
+                }
+              });
+      Future<?> inlineIdle = executorService.submit(shadowLooper::idle);
+      assertThat(inlineTaskStarted.await(5, SECONDS)).isTrue();
+
+      // The Looper is still paused, but a control task is already running.
+      Future<?> queuedIdle = executorService.submit(shadowLooper::idle);
+      Thread.sleep(100);
+      assertThat(queuedIdle.isDone()).isFalse();
+
+      finishInlineTask.countDown();
+      inlineIdle.get(5, SECONDS);
+      queuedIdle.get(5, SECONDS);
+      assertThat(shadowLooper.isPaused()).isTrue();
+    } finally {
+      executorService.shutdown();
+      System.clearProperty(LooperControlService.INLINE_CONTROL_TASKS_PROPERTY);
+    }
+  }
+
   @Test
   public void postedDelayedBackgroundLooperTasksAreExecutedOnlyWhenSystemClockAdvanced() {
     AtomicBoolean wasRun = new AtomicBoolean(false);
@@ -11,6 +11,20 @@ import org.robolectric.internal.bytecode.ShadowProviders;
 /** Instruments the Android jars */
 public class AndroidConfigurer {
 
+  /**
+   * If this system property is set to {@code true}, only the methods of Android classes that may be
+   * shadowed are routed through the class handler; see {@link
+   * InstrumentationConfiguration#shouldInstrumentMethodsOf(String)}.
+   *
+   * <p>Calls to the methods of other classes then no longer go through an {@code invokedynamic}
+   * call site, so that framework code runs faster once warmed up. As a consequence, {@link
+   * org.robolectric.pluginapi.MethodHandleDecorator}s don't see those calls. Tests that add shadows
+   * for other classes with {@code @Config(shadows=...)} run in a separate sandbox that routes the
+   * methods of those classes as well.
+   */
+  public static final String SELECTIVE_INSTRUMENTATION_PROPERTY =
+      "robolectric.selectiveInstrumentation";
+
   private final ShadowProviders shadowProviders;
 
   public AndroidConfigurer(ShadowProviders shadowProviders) {
@@ -31,6 +45,7 @@ public class AndroidConfigurer {
 
       if (!className.isEmpty()) {
         builder.addInstrumentedClass(className);
+        builder.addShadowedClass(className);
       }
     }
     for (String packageName : config.instrumentedPackages()) {
@@ -108,5 +123,12 @@ public class AndroidConfigurer {
     for (String packagePrefix : shadowProviders.getInstrumentedPackages()) {
       builder.addInstrumentedPackage(packagePrefix);
     }
+
+    if (Boolean.getBoolean(SELECTIVE_INSTRUMENTATION_PROPERTY)) {
+      builder.setSelectiveMethodInstrumentation(true);
+      for (String className : shadowProviders.getBaseShadowMap().getShadowedClassNames()) {
+        builder.addShadowedClass(className);
+      }
+    }
   }
 }
@@ -107,12 +107,19 @@ public class ClassInstrumentor {
               int access, String name, String desc, String signature, String[] exceptions) {
             MethodVisitor methodVisitor =
                 super.visitMethod(access, name, config.remapParams(desc), signature, exceptions);
+            if ((version & 0xFFFF) >= Opcodes.V1_7) {
+              // JSR and RET are not allowed in Java 7+ class files, so there is nothing to inline
+              // and the method can be read straight into its MethodNode.
+              return methodVisitor;
+            }
             return new JSRInlinerAdapter(methodVisitor, access, name, desc, signature, exceptions);
           }
         };
 
     final ClassReader classReader = new ClassReader(origClassBytes);
-    classReader.accept(classNode, 0);
+    // Stack map frames are recomputed by InstrumentingClassWriter, so the original ones are not
+    // needed.
+    classReader.accept(classNode, ClassReader.SKIP_FRAMES);
     return new MutableClass(classNode, config, classNodeProvider);
   }
 
@@ -127,6 +134,28 @@ public class ClassInstrumentor {
           public String map(final String internalName) {
             return mutableClass.config.mappedTypeName(internalName);
           }
+
+          // Most descriptors refer to no remapped class, so skip taking them apart.
+          @Override
+          public String mapDesc(String descriptor) {
+            return mutableClass.config.mayRemap(descriptor)
+                ? super.mapDesc(descriptor)
+                : descriptor;
+          }
+
+          @Override
+          public String mapMethodDesc(String methodDescriptor) {
+            return mutableClass.config.mayRemap(methodDescriptor)
+                ? super.mapMethodDesc(methodDescriptor)
+                : methodDescriptor;
+          }
+
+          @Override
+          public String mapSignature(String signature, boolean typeSignature) {
+            return signature == null || mutableClass.config.mayRemap(signature)
+                ? super.mapSignature(signature, typeSignature)
+                : signature;
+          }
         };
     ClassRemapper visitor = new ClassRemapper(writer, remapper);
     classNode.accept(visitor);
@@ -307,6 +336,8 @@ public class ClassInstrumentor {
         rewriteMethodBody(mutableClass, method);
       }
     } else {
+      boolean instrumentNormalMethods =
+          mutableClass.config.shouldInstrumentMethodsOf(mutableClass.getName());
       for (MethodNode method : mutableClass.getMethods()) {
         rewriteMethodBody(mutableClass, method);
 
@@ -320,7 +351,11 @@ public class ClassInstrumentor {
             instrumentConstructor(mutableClass, method);
           }
         } else if (!isSyntheticAccessorMethod(method) && !Modifier.isAbstract(method.access)) {
-          instrumentNormalMethod(mutableClass, method);
+          if (instrumentNormalMethods || Modifier.isNative(method.access)) {
+            instrumentNormalMethod(mutableClass, method);
+          } else {
+            addDirectMethod(mutableClass, method);
+          }
         }
       }
     }
@@ -567,6 +602,24 @@ public class ClassInstrumentor {
     mutableClass.addMethod(delegatorMethodNode);
   }
 
+  /**
+   * Leaves a method that can't be shadowed as it is, so that calling it doesn't go through the
+   * {@link ClassHandler}.
+   *
+   * <ul>
+   *   <li>Remove {@code final} modifiers, if present, as {@link #instrumentNormalMethod} does.
+   *   <li>Create a private method named {@code $$robo$$methodName} which calls the original method,
+   *       so that it can still be called directly, e.g. by {@code @Direct} reflectors.
+   * </ul>
+   */
+  protected void addDirectMethod(MutableClass mutableClass, MethodNode method) {
+    method.access &= ~Opcodes.ACC_FINAL;
+    MethodNode directMethod =
+        redirectorMethod(mutableClass, method, directMethodName(mutableClass, method.name));
+    directMethod.access &= ~(Opcodes.ACC_BRIDGE | Opcodes.ACC_SYNCHRONIZED);
+    mutableClass.addMethod(directMethod);
+  }
+
   /**
    * Creates native stub which returns the default return value.
    *
@@ -1,5 +1,6 @@
 package org.robolectric.internal.bytecode;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import org.objectweb.asm.ClassReader;
@@ -19,12 +20,19 @@ public abstract class ClassNodeProvider {
     return classNode;
   }
 
+  /**
+   * Creates a class node with only the access flags, name, super class and interfaces of the class,
+   * which is all that is needed to compute stack map frames. They are read from the class header,
+   * without parsing the rest of the class.
+   */
   private ClassNode createClassNode(String internalClassName) throws ClassNotFoundException {
     byte[] byteCode = getClassBytes(internalClassName);
     ClassReader classReader = new ClassReader(byteCode);
     ClassNode classNode = new ClassNode();
-    classReader.accept(
-        classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    classNode.access = classReader.getAccess();
+    classNode.name = classReader.getClassName();
+    classNode.superName = classReader.getSuperName();
+    classNode.interfaces = Arrays.asList(classReader.getInterfaces());
     return classNode;
   }
 }
@@ -0,0 +1,284 @@
+package org.robolectric.internal.bytecode;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import org.robolectric.util.Logger;
+import org.robolectric.util.PerfStatsCollector;
+
+/**
+ * An index of the packages in each jar of a classpath, so that looking up a class or resource only
+ * probes the jars that contain its package, instead of every jar in order.
+ *
+ * <p>Lookups return the same resource as a {@link java.net.URLClassLoader} over the same URLs
+ * without a parent would. Entries that aren't jars, e.g. directories, can change while tests run,
+ * so they aren't indexed and are probed for every lookup. Neither are jars with a {@code
+ * Class-Path} manifest attribute, e.g. the pathing jars that build tools use for long classpaths,
+ * as looking up a resource in them also looks it up in the jars they refer to.
+ *
+ * <p>Indexes are built once per classpath, reading the jars in parallel, and are shared by the
+ * sandboxes that use that classpath. A jar that is rewritten, i.e. whose size or modification time
+ * changed, causes a new index to be built for the next sandbox. Once no sandbox uses an index, it
+ * is dropped and the class loaders it opened are closed.
+ */
+final class ClasspathIndex {
+  @GuardedBy("ClasspathIndex.class")
+  private static final Map<Key, ClasspathIndex> indexes = new HashMap<>();
+
+  private static final String VERSIONS_PREFIX = "META-INF/versions/";
+  private static final int[] NO_ENTRIES = new int[0];
+
+  private final URL[] urls;
+  // For each package directory, e.g. "android/view", the indexes of the jars that contain it.
+  private final Map<String, int[]> entriesByPackage;
+  // The indexes of the classpath entries that aren't indexed, and are always probed.
+  private final int[] unindexedEntries;
+  // Created lazily, and shared by all users of this index.
+  private final AtomicReferenceArray<UrlResourceProvider> entryLoaders;
+
+  @GuardedBy("ClasspathIndex.class")
+  private Key key;
+
+  @GuardedBy("ClasspathIndex.class")
+  private int users;
+
+  private ClasspathIndex(URL[] urls, Map<String, int[]> entriesByPackage, int[] unindexedEntries) {
+    this.urls = urls;
+    this.entriesByPackage = entriesByPackage;
+    this.unindexedEntries = unindexedEntries;
+    this.entryLoaders = new AtomicReferenceArray<>(urls.length);
+  }
+
+  /**
+   * Returns the index of the given classpath, building it if it wasn't built yet, or if a jar
+   * changed since it was built. Callers must {@link #release} the index once they no longer use it.
+   */
+  static synchronized ClasspathIndex forUrls(URL[] urls) {
+    Key key = Key.of(urls);
+    ClasspathIndex index = indexes.get(key);
+    if (index == null) {
+      index =
+          PerfStatsCollector.getInstance()
+              .measure("ClasspathIndex-build", () -> build(urls.clone()));
+      index.key = key;
+      indexes.put(key, index);
+    }
+    index.users++;
+    return index;
+  }
+
+  /** Releases an index returned by {@link #forUrls}, closing it if it is no longer used. */
+  void release() {
+    synchronized (ClasspathIndex.class) {
+      if (--users > 0) {
+        return;
+      }
+      indexes.remove(key);
+    }
+    for (int i = 0; i < entryLoaders.length(); i++) {
+      UrlResourceProvider loader = entryLoaders.getAndSet(i, null);
+      if (loader != null) {
+        try {
+          loader.close();
+        } catch (IOException e) {
+          Logger.warn("Failed to close class loader for %s: %s", urls[i], e);
+        }
+      }
+    }
+  }
+
+  private static ClasspathIndex build(URL[] urls) {
+    List<Set<String>> packagesByEntry =
+        IntStream.range(0, urls.length)
+            .parallel()
+            .mapToObj(i -> readPackages(urls[i]))
+            .collect(Collectors.toList());
+
+    Map<String, List<Integer>> entryListsByPackage = new HashMap<>();
+    List<Integer> unindexedEntries = new ArrayList<>();
+    for (int i = 0; i < urls.length; i++) {
+      Set<String> packages = packagesByEntry.get(i);
+      if (packages == null) {
+        unindexedEntries.add(i);
+        continue;
+      }
+      for (String packageDir : packages) {
+        entryListsByPackage.computeIfAbsent(packageDir, k -> new ArrayList<>()).add(i);
+      }
+    }
+    Map<String, int[]> entriesByPackage = new HashMap<>();
+    entryListsByPackage.forEach(
+        (packageDir, entries) -> entriesByPackage.put(packageDir, toArray(entries)));
+    return new ClasspathIndex(urls, entriesByPackage, toArray(unindexedEntries));
+  }
+
+  /**
+   * Returns the package directories of the entries of the given jar, or null if it isn't a jar that
+   * can be indexed.
+   */
+  @Nullable
+  private static Set<String> readPackages(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return null;
+    }
+    Path path;
+    try {
+      path = Paths.get(url.toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    Set<String> packages = new HashSet<>();
+    try (JarFile jarFile = new JarFile(path.toFile(), /* verify= */ false)) {
+      Manifest manifest = jarFile.getManifest();
+      if (manifest != null
+          && manifest.getMainAttributes().containsKey(Attributes.Name.CLASS_PATH)) {
+        return null;
+      }
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        String name = entries.nextElement().getName();
+        packages.add(packageDirOf(name));
+        if (name.startsWith(VERSIONS_PREFIX)) {
+          // Multi-release jars can have classes that only exist in a versioned directory.
+          int versionEnd = name.indexOf('/', VERSIONS_PREFIX.length());
+          if (versionEnd != -1) {
+            packages.add(packageDirOf(name.substring(versionEnd + 1)));
+          }
+        }
+      }
+    } catch (IOException e) {
+      return null;
+    }
+    return packages;
+  }
+
+  /** Returns the URL of the given resource, or null if it isn't on the classpath. */
+  @Nullable
+  URL findResource(String name) {
+    for (int entry : candidateEntries(name)) {
+      URL url = entryLoader(entry).findResource(name);
+      if (url != null) {
+        return url;
+      }
+    }
+    return null;
+  }
+
+  /** Opens the given resource, or returns null if it isn't on the classpath or can't be read. */
+  @Nullable
+  InputStream getResourceAsStream(String name) {
+    URL url = findResource(name);
+    try {
+      return url == null ? null : url.openStream();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private int[] candidateEntries(String name) {
+    int[] indexedEntries = entriesByPackage.getOrDefault(packageDirOf(name), NO_ENTRIES);
+    if (unindexedEntries.length == 0) {
+      return indexedEntries;
+    }
+    // Keep the classpath order.
+    int[] entries = Arrays.copyOf(indexedEntries, indexedEntries.length + unindexedEntries.length);
+    System.arraycopy(unindexedEntries, 0, entries, indexedEntries.length, unindexedEntries.length);
+    Arrays.sort(entries);
+    return entries;
+  }
+
+  private UrlResourceProvider entryLoader(int entry) {
+    UrlResourceProvider loader = entryLoaders.get(entry);
+    if (loader == null) {
+      UrlResourceProvider newLoader = new UrlResourceProvider(urls[entry]);
+      if (entryLoaders.compareAndSet(entry, null, newLoader)) {
+        loader = newLoader;
+      } else {
+        loader = entryLoaders.get(entry);
+        try {
+          newLoader.close();
+        } catch (IOException e) {
+          // The loader wasn't used, so there is nothing to clean up.
+        }
+      }
+    }
+    return loader;
+  }
+
+  private static String packageDirOf(String name) {
+    int lastSlash = name.lastIndexOf('/');
+    return lastSlash == -1 ? "" : name.substring(0, lastSlash);
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /** Identifies a classpath, including the version of each of its jars. */
+  private static final class Key {
+    private final ImmutableList<String> entries;
+
+    private Key(ImmutableList<String> entries) {
+      this.entries = entries;
+    }
+
+    static Key of(URL[] urls) {
+      return new Key(Arrays.stream(urls).map(Key::describe).collect(toImmutableList()));
+    }
+
+    private static String describe(URL url) {
+      String entry = url.toExternalForm();
+      if (!"file".equals(url.getProtocol())) {
+        return entry;
+      }
+      try {
+        BasicFileAttributes attributes =
+            Files.readAttributes(Paths.get(url.toURI()), BasicFileAttributes.class);
+        if (attributes.isRegularFile()) {
+          return entry + "@" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        }
+      } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+        // Missing or unusable entries aren't indexed, so their versions don't matter.
+      }
+      return entry;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && entries.equals(((Key) o).entries);
+    }
+
+    @Override
+    public int hashCode() {
+      return entries.hashCode();
+    }
+  }
+}
@@ -12,6 +12,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.objectweb.asm.tree.MethodInsnNode;
@@ -63,8 +64,26 @@ public class InstrumentationConfiguration {
   private final Set<String> classesToNotAcquire;
   private final Set<String> packagesToNotAcquire;
   private final Set<String> packagesToNotInstrument;
+  private final boolean selectiveMethodInstrumentation;
+  private final Set<String> shadowedClasses;
   private int cachedHashCode;
 
+  // Decisions are made for every class and resource a sandbox loads, so they are compiled into
+  // prefix tries and cached by name.
+  private final PrefixTrie instrumentedPackagesTrie;
+  private final PrefixTrie packagesToNotInstrumentTrie;
+  private final PrefixTrie packagesToNotAcquireTrie;
+  private final Map<String, Boolean> acquireDecisions = new ConcurrentHashMap<>();
+  private final Map<String, NameDecision> instrumentDecisions = new ConcurrentHashMap<>();
+
+  /** Whether a class should be instrumented, as far as can be told by its name. */
+  private enum NameDecision {
+    INSTRUMENT,
+    DO_NOT_INSTRUMENT,
+    /** Only if the class is annotated with {@link Instrument}. */
+    INSTRUMENT_IF_ANNOTATED
+  }
+
   private final TypeMapper typeMapper;
   private final Set<MethodRef> methodsToIntercept;
 
@@ -78,6 +97,32 @@ public class InstrumentationConfiguration {
       Collection<String> classesToNotInstrument,
       Collection<String> packagesToNotInstrument,
       String classesToNotInstrumentRegex) {
+    this(
+        classNameTranslations,
+        interceptedMethods,
+        instrumentedPackages,
+        instrumentedClasses,
+        classesToNotAcquire,
+        packagesToNotAcquire,
+        classesToNotInstrument,
+        packagesToNotInstrument,
+        classesToNotInstrumentRegex,
+        false,
+        Collections.emptySet());
+  }
+
+  protected InstrumentationConfiguration(
+      Map<String, String> classNameTranslations,
+      Collection<MethodRef> interceptedMethods,
+      Collection<String> instrumentedPackages,
+      Collection<String> instrumentedClasses,
+      Collection<String> classesToNotAcquire,
+      Collection<String> packagesToNotAcquire,
+      Collection<String> classesToNotInstrument,
+      Collection<String> packagesToNotInstrument,
+      String classesToNotInstrumentRegex,
+      boolean selectiveMethodInstrumentation,
+      Collection<String> shadowedClasses) {
     this.classNameTranslations = ImmutableMap.copyOf(classNameTranslations);
     this.interceptedMethods = ImmutableSet.copyOf(interceptedMethods);
     this.instrumentedPackages = ImmutableList.copyOf(instrumentedPackages);
@@ -89,8 +134,19 @@ public class InstrumentationConfiguration {
     this.classesToNotInstrumentRegex = classesToNotInstrumentRegex;
     this.classesToNotInstrumentPattern =
         classesToNotInstrumentRegex == null ? null : Pattern.compile(classesToNotInstrumentRegex);
+    this.selectiveMethodInstrumentation = selectiveMethodInstrumentation;
+    this.shadowedClasses = ImmutableSet.copyOf(shadowedClasses);
     this.cachedHashCode = 0;
 
+    this.instrumentedPackagesTrie = new PrefixTrie(this.instrumentedPackages);
+    this.packagesToNotInstrumentTrie = new PrefixTrie(this.packagesToNotInstrument);
+    this.packagesToNotAcquireTrie =
+        new PrefixTrie(
+            ImmutableSet.<String>builder()
+                .addAll(PACKAGES_TO_NEVER_ACQUIRE)
+                .addAll(this.packagesToNotAcquire)
+                .build());
+
     this.typeMapper = new TypeMapper(classNameTranslations());
     this.methodsToIntercept = ImmutableSet.copyOf(convertToSlashes(methodsToIntercept()));
   }
@@ -102,19 +158,46 @@ public class InstrumentationConfiguration {
    * @return True if the class should be instrumented.
    */
   public boolean shouldInstrument(ClassDetails classDetails) {
-    return !classDetails.isAnnotation()
-        && !classesToNotInstrument.contains(classDetails.getName())
-        && !isInPackagesToNotInstrument(classDetails.getName())
-        && !classMatchesExclusionRegex(classDetails.getName())
+    NameDecision nameDecision =
+        instrumentDecisions.computeIfAbsent(classDetails.getName(), this::decideInstrumentByName);
+    return nameDecision != NameDecision.DO_NOT_INSTRUMENT
+        && !classDetails.isAnnotation()
         && !classDetails.isInstrumented()
         && !classDetails.hasAnnotation(DoNotInstrument.class)
-        && (isInInstrumentedPackage(classDetails.getName())
-            || instrumentedClasses.contains(classDetails.getName())
-            || classDetails.hasAnnotation(Instrument.class))
+        && (nameDecision == NameDecision.INSTRUMENT || classDetails.hasAnnotation(Instrument.class))
         && !classDetails.hasAnnotation(
             "org.junit.runner.RunWith"); // Don't instrument test classes.
   }
 
+  private NameDecision decideInstrumentByName(String className) {
+    if (classesToNotInstrument.contains(className)
+        || packagesToNotInstrumentTrie.matchesPrefixOf(className)
+        || classMatchesExclusionRegex(className)) {
+      return NameDecision.DO_NOT_INSTRUMENT;
+    }
+    if (instrumentedPackagesTrie.matchesPrefixOf(className)
+        || instrumentedClasses.contains(className)) {
+      return NameDecision.INSTRUMENT;
+    }
+    return NameDecision.INSTRUMENT_IF_ANNOTATED;
+  }
+
+  /**
+   * Determine if {@link ClassInstrumentor} should route the methods of a given instrumented class
+   * through the {@link ClassHandler}.
+   *
+   * <p>This is always the case unless selective method instrumentation is enabled, in which case
+   * only the methods of classes that may be shadowed are routed. The methods of other classes are
+   * left as they are, except for native methods, which always need a stub.
+   *
+   * @param className The fully-qualified class name.
+   * @return True if the methods of the class should be routed through the class handler.
+   */
+  public boolean shouldInstrumentMethodsOf(String className) {
+    return !selectiveMethodInstrumentation
+        || shadowedClasses.contains(normalizeShadowedClassName(className));
+  }
+
   private boolean classMatchesExclusionRegex(String className) {
     return classesToNotInstrumentPattern != null
         && classesToNotInstrumentPattern.matcher(className).matches();
@@ -127,6 +210,10 @@ public class InstrumentationConfiguration {
    * @return True if the class should be loaded.
    */
   public boolean shouldAcquire(String name) {
+    return acquireDecisions.computeIfAbsent(name, this::decideAcquire);
+  }
+
+  private boolean decideAcquire(String name) {
     if (CLASSES_TO_ALWAYS_ACQUIRE.contains(name)) {
       return true;
     }
@@ -146,16 +233,8 @@ public class InstrumentationConfiguration {
       return true;
     }
 
-    for (String packageName : PACKAGES_TO_NEVER_ACQUIRE) {
-      if (name.startsWith(packageName)) {
-        return false;
-      }
-    }
-
-    for (String packageName : packagesToNotAcquire) {
-      if (name.startsWith(packageName)) {
-        return false;
-      }
+    if (packagesToNotAcquireTrie.matchesPrefixOf(name)) {
+      return false;
     }
     return !classesToNotAcquire.contains(name);
   }
@@ -189,24 +268,6 @@ public class InstrumentationConfiguration {
     return Collections.unmodifiableMap(classNameTranslations);
   }
 
-  private boolean isInInstrumentedPackage(String className) {
-    for (String instrumentedPackage : instrumentedPackages) {
-      if (className.startsWith(instrumentedPackage)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private boolean isInPackagesToNotInstrument(String className) {
-    for (String notInstrumentedPackage : packagesToNotInstrument) {
-      if (className.startsWith(notInstrumentedPackage)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -219,6 +280,8 @@ public class InstrumentationConfiguration {
     if (!instrumentedPackages.equals(that.instrumentedPackages)) return false;
     if (!instrumentedClasses.equals(that.instrumentedClasses)) return false;
     if (!interceptedMethods.equals(that.interceptedMethods)) return false;
+    if (selectiveMethodInstrumentation != that.selectiveMethodInstrumentation) return false;
+    if (!shadowedClasses.equals(that.shadowedClasses)) return false;
 
     return true;
   }
@@ -234,6 +297,8 @@ public class InstrumentationConfiguration {
     result = 31 * result + classNameTranslations.hashCode();
     result = 31 * result + interceptedMethods.hashCode();
     result = 31 * result + classesToNotAcquire.hashCode();
+    result = 31 * result + (selectiveMethodInstrumentation ? 1 : 0);
+    result = 31 * result + shadowedClasses.hashCode();
     cachedHashCode = result;
     return result;
   }
@@ -250,6 +315,10 @@ public class InstrumentationConfiguration {
     return typeMapper.mappedTypeName(internalName);
   }
 
+  boolean mayRemap(String desc) {
+    return typeMapper.mayRemap(desc);
+  }
+
   boolean shouldIntercept(MethodInsnNode targetMethod) {
     if (targetMethod.name.equals("<init>")) {
       return false; // sorry, can't strip out calls to super() in constructor
@@ -270,6 +339,12 @@ public class InstrumentationConfiguration {
     return className.replace('.', '/');
   }
 
+  // Shadows are registered by canonical name, but @Implements(className=...) and shadow pickers use
+  // binary names; compare them in canonical form.
+  private static String normalizeShadowedClassName(String className) {
+    return className.replace('$', '.');
+  }
+
   public static final class Builder {
     public final Collection<String> instrumentedPackages = new HashSet<>();
     public final Collection<MethodRef> interceptedMethods = new HashSet<>();
@@ -280,6 +355,8 @@ public class InstrumentationConfiguration {
     public final Collection<String> classesToNotInstrument = new HashSet<>();
     public final Collection<String> packagesToNotInstrument = new HashSet<>();
     public String classesToNotInstrumentRegex;
+    public boolean selectiveMethodInstrumentation;
+    public final Collection<String> shadowedClasses = new HashSet<>();
 
     public Builder() {}
 
@@ -293,6 +370,8 @@ public class InstrumentationConfiguration {
       classesToNotInstrument.addAll(classLoaderConfig.classesToNotInstrument);
       packagesToNotInstrument.addAll(classLoaderConfig.packagesToNotInstrument);
       classesToNotInstrumentRegex = classLoaderConfig.classesToNotInstrumentRegex;
+      selectiveMethodInstrumentation = classLoaderConfig.selectiveMethodInstrumentation;
+      shadowedClasses.addAll(classLoaderConfig.shadowedClasses);
     }
 
     public Builder doNotAcquireClass(Class<?> clazz) {
@@ -345,6 +424,23 @@ public class InstrumentationConfiguration {
       return this;
     }
 
+    /**
+     * Only routes the methods of classes that may be shadowed through the {@link ClassHandler}.
+     * Shadowed classes must be registered with {@link #addShadowedClass(String)}.
+     *
+     * @see InstrumentationConfiguration#shouldInstrumentMethodsOf(String)
+     */
+    public Builder setSelectiveMethodInstrumentation(boolean selectiveMethodInstrumentation) {
+      this.selectiveMethodInstrumentation = selectiveMethodInstrumentation;
+      return this;
+    }
+
+    /** Registers a class that may be shadowed, by its binary or canonical name. */
+    public Builder addShadowedClass(String className) {
+      shadowedClasses.add(normalizeShadowedClassName(className));
+      return this;
+    }
+
     public InstrumentationConfiguration build() {
       // Remove redundant packages, e.g. remove 'android.os' if 'android.' is present.
       List<String> minimalPackages = new ArrayList<>(instrumentedPackages);
@@ -378,7 +474,11 @@ public class InstrumentationConfiguration {
           packagesToNotAcquire,
           classesToNotInstrument,
           packagesToNotInstrument,
-          classesToNotInstrumentRegex);
+          classesToNotInstrumentRegex,
+          selectiveMethodInstrumentation,
+          // Shadowed classes only matter for selective method instrumentation, don't let them
+          // create separate sandboxes otherwise.
+          selectiveMethodInstrumentation ? shadowedClasses : Collections.emptySet());
     }
   }
 }
@@ -19,6 +19,7 @@ import java.lang.invoke.MethodType;
 import java.lang.invoke.SwitchPoint;
 import java.lang.invoke.WrongMethodTypeException;
 import org.robolectric.util.PerfStatsCollector;
+import org.robolectric.util.PerfStatsCollector.MetricHandle;
 import org.robolectric.util.ReflectionHelpers;
 
 @SuppressWarnings("RethrowReflectiveOperationExceptionAsLinkageError")
@@ -31,6 +32,15 @@ public class InvokeDynamicSupport {
   private static final MethodHandle EXCEPTION_HANDLER;
   private static final MethodHandle GET_SHADOW;
 
+  private static final MetricHandle BOOTSTRAP_INIT_METRIC =
+      PerfStatsCollector.getInstance().getMetricHandle("invokedynamic bootstrap init");
+  private static final MetricHandle BOOTSTRAP_METRIC =
+      PerfStatsCollector.getInstance().getMetricHandle("invokedynamic bootstrap");
+  private static final MetricHandle BOOTSTRAP_STATIC_METRIC =
+      PerfStatsCollector.getInstance().getMetricHandle("invokedynamic bootstrap static");
+  private static final MetricHandle BOOTSTRAP_INTRINSIC_METRIC =
+      PerfStatsCollector.getInstance().getMetricHandle("invokedynamic bootstrap intrinsic");
+
   /**
    * Represents the boolean 'true' as an integer. Due to a JVM bug, invokedynamic bootstrap methods
    * currently do not support extra primitive boolean parameters. Integers are required to convey
@@ -72,7 +82,7 @@ public class InvokeDynamicSupport {
   public static CallSite bootstrapInit(MethodHandles.Lookup caller, String name, MethodType type) {
     return PerfStatsCollector.getInstance()
         .measure(
-            "invokedynamic bootstrap init",
+            BOOTSTRAP_INIT_METRIC,
             () -> {
               RoboCallSite site = new RoboCallSite(type, caller.lookupClass());
 
@@ -92,7 +102,7 @@ public class InvokeDynamicSupport {
       throws IllegalAccessException {
     return PerfStatsCollector.getInstance()
         .measure(
-            "invokedynamic bootstrap",
+            BOOTSTRAP_METRIC,
             () -> {
               MethodCallSite site =
                   new MethodCallSite(
@@ -119,7 +129,7 @@ public class InvokeDynamicSupport {
       throws IllegalAccessException {
     return PerfStatsCollector.getInstance()
         .measure(
-            "invokedynamic bootstrap static",
+            BOOTSTRAP_STATIC_METRIC,
             () -> {
               MethodCallSite site =
                   new MethodCallSite(
@@ -136,7 +146,7 @@ public class InvokeDynamicSupport {
       MethodHandles.Lookup caller, String name, MethodType type, String callee) {
     return PerfStatsCollector.getInstance()
         .measure(
-            "invokedynamic bootstrap intrinsic",
+            BOOTSTRAP_INTRINSIC_METRIC,
             () -> {
               MethodHandle mh = getMethodHandle(callee, name, type);
               if (mh == null) {
@@ -0,0 +1,90 @@
+package org.robolectric.internal.bytecode;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable set of string prefixes, e.g. package names, that finds whether any of them is a
+ * prefix of a given name in a single pass over the name.
+ *
+ * <p>This replaces looping over the prefixes and calling {@link String#startsWith(String)} on each
+ * of them, which is slow when it is done for every class and resource a sandbox loads.
+ */
+final class PrefixTrie {
+  private static final Node[] NO_CHILDREN = new Node[0];
+
+  private final Node root;
+
+  PrefixTrie(Collection<String> prefixes) {
+    MutableNode mutableRoot = new MutableNode();
+    for (String prefix : prefixes) {
+      MutableNode node = mutableRoot;
+      for (int i = 0; i < prefix.length(); i++) {
+        node = node.child(prefix.charAt(i));
+      }
+      node.terminal = true;
+    }
+    this.root = mutableRoot.freeze();
+  }
+
+  /** Returns true if any of the prefixes is a prefix of {@code name}. */
+  boolean matchesPrefixOf(String name) {
+    Node node = root;
+    for (int i = 0; ; i++) {
+      if (node.terminal) {
+        return true;
+      }
+      if (i == name.length()) {
+        return false;
+      }
+      node = node.child(name.charAt(i));
+      if (node == null) {
+        return false;
+      }
+    }
+  }
+
+  private static final class Node {
+    private final char[] keys;
+    private final Node[] children;
+    private final boolean terminal;
+
+    private Node(char[] keys, Node[] children, boolean terminal) {
+      this.keys = keys;
+      this.children = children;
+      this.terminal = terminal;
+    }
+
+    private Node child(char c) {
+      int index = Arrays.binarySearch(keys, c);
+      return index < 0 ? null : children[index];
+    }
+  }
+
+  private static final class MutableNode {
+    private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+    private boolean terminal;
+
+    private MutableNode child(char c) {
+      return children.computeIfAbsent(c, k -> new MutableNode());
+    }
+
+    private Node freeze() {
+      if (children.isEmpty() || terminal) {
+        // Nothing below a terminal node can change the result.
+        return new Node(new char[0], NO_CHILDREN, terminal);
+      }
+      char[] keys = new char[children.size()];
+      Node[] frozen = new Node[children.size()];
+      int i = 0;
+      for (Map.Entry<Character, MutableNode> entry : children.entrySet()) {
+        keys[i] = entry.getKey();
+        frozen[i] = entry.getValue().freeze();
+        i++;
+      }
+      return new Node(keys, frozen, false);
+    }
+  }
+}
@@ -15,6 +15,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import javax.inject.Inject;
 import org.robolectric.shadow.api.Shadow;
+import org.robolectric.util.PerfStatsCollector;
 import org.robolectric.util.ReflectionHelpers;
 import org.robolectric.util.Util;
 
@@ -64,7 +65,11 @@ public class Sandbox {
     ShadowMap oldShadowMap = this.shadowMap;
     this.shadowMap = shadowMap;
     Set<String> invalidatedClasses = new HashSet<>();
-    invalidatedClasses.addAll(shadowMap.getInvalidatedClasses(oldShadowMap));
+    Set<String> shadowMapInvalidatedClasses = shadowMap.getInvalidatedClasses(oldShadowMap);
+    if (!shadowMapInvalidatedClasses.isEmpty()) {
+      PerfStatsCollector.getInstance().incrementCount("Sandbox.replaceShadowMap swap");
+    }
+    invalidatedClasses.addAll(shadowMapInvalidatedClasses);
     invalidatedClasses.addAll(getModeInvalidatedClasses());
     getShadowInvalidator().invalidateClasses(invalidatedClasses);
     clearModeInvalidatedClasses();
@@ -18,10 +18,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import org.robolectric.internal.ClassTracker;
 import org.robolectric.util.Logger;
 import org.robolectric.util.PerfStatsCollector;
+import org.robolectric.util.PerfStatsCollector.MetricHandle;
 
 /**
  * Class loader that modifies the bytecode of Android classes to insert calls to Robolectric's
@@ -31,16 +33,25 @@ public class SandboxClassLoader extends URLClassLoader implements ClassTracker {
   // The directory where instrumented class files will be dumped
   private static final String DUMP_CLASSES_PROPERTY = "robolectric.dumpClassesDirectory";
 
+  // Whether to look up classes and resources on the classpath through a shared ClasspathIndex.
+  static final String INDEX_CLASSPATH_PROPERTY = "robolectric.indexClasspath";
+
   // Whether to log resources abd classes loaded from android-all jars.
   private static final boolean LOG_RESOURCE_USAGE = false;
 
   private static final AtomicInteger DUMP_CLASSES_COUNTER = new AtomicInteger();
 
+  private static final MetricHandle LOAD_SANDBOXED_CLASS_METRIC =
+      PerfStatsCollector.getInstance().getMetricHandle("load sandboxed class");
+
   private final InstrumentationConfiguration config;
   private final ResourceProvider resourceProvider;
   private final ClassInstrumentor classInstrumentor;
   private final ClassNodeProvider classNodeProvider;
   private final String dumpClassesDirectory;
+  @Nullable private final ClasspathIndex classpathIndex;
+  // The classpath the index was built for.
+  @Nullable private final String indexedClassPath;
   private boolean isClosed;
 
   /** Constructor for use by tests. */
@@ -80,6 +91,25 @@ public class SandboxClassLoader extends URLClassLoader implements ClassTracker {
           }
         };
     this.dumpClassesDirectory = System.getProperty(DUMP_CLASSES_PROPERTY, "");
+    if (canIndexClasspath(erstwhileClassLoader)) {
+      this.indexedClassPath = JAVA_CLASS_PATH.value();
+      this.classpathIndex = ClasspathIndex.forUrls(getURLs());
+    } else {
+      this.indexedClassPath = null;
+      this.classpathIndex = null;
+    }
+  }
+
+  /**
+   * Returns whether classpath lookups can go through a {@link ClasspathIndex}. This is the case if
+   * the erstwhile class loader is the system class loader, whose resources are the ones on the
+   * platform class loader, followed by the ones on the classpath, which are this class loader's
+   * URLs.
+   */
+  private static boolean canIndexClasspath(ClassLoader erstwhileClassLoader) {
+    return Boolean.parseBoolean(System.getProperty(INDEX_CLASSPATH_PROPERTY, "true"))
+        && erstwhileClassLoader == ClassLoader.getSystemClassLoader()
+        && !(erstwhileClassLoader instanceof URLClassLoader);
   }
 
   private static URL[] getClassPathUrls(ClassLoader classloader) {
@@ -129,13 +159,40 @@ public class SandboxClassLoader extends URLClassLoader implements ClassTracker {
       }
     }
 
-    URL fromParent = super.getResource(name);
+    URL fromParent = getResourceFromParent(name);
     if (fromParent != null) {
       return fromParent;
     }
     return fromLocal;
   }
 
+  /**
+   * Looks up a resource like the parent class loader would, and then like this {@link
+   * URLClassLoader} would on its URLs.
+   */
+  private URL getResourceFromParent(String name) {
+    if (classpathIndex == null) {
+      return super.getResource(name);
+    }
+    URL fromPlatform = ClassLoader.getPlatformClassLoader().getResource(name);
+    if (fromPlatform != null) {
+      return fromPlatform;
+    }
+    URL fromClasspath = classpathIndex.findResource(name);
+    if (fromClasspath != null || !classPathChanged()) {
+      return fromClasspath;
+    }
+    return getParent().getResource(name);
+  }
+
+  /**
+   * Returns whether entries were added to the classpath since the index was built, e.g. by an
+   * agent, in which case resources that aren't in the index must still be looked up in the parent.
+   */
+  private boolean classPathChanged() {
+    return !indexedClassPath.equals(JAVA_CLASS_PATH.value());
+  }
+
   protected URL getResourceUrl(String name) {
     URL result = resourceProvider.getResource(name);
     if (LOG_RESOURCE_USAGE && result != null) {
@@ -163,7 +220,19 @@ public class SandboxClassLoader extends URLClassLoader implements ClassTracker {
     if (fromAlternateClassLoader != null) {
       return fromAlternateClassLoader;
     }
-    return super.getResourceAsStream(resName);
+    if (classpathIndex == null) {
+      return super.getResourceAsStream(resName);
+    }
+    // The resource provider was already checked, so this only needs to check the classpath.
+    InputStream fromPlatform = ClassLoader.getPlatformClassLoader().getResourceAsStream(resName);
+    if (fromPlatform != null) {
+      return fromPlatform;
+    }
+    InputStream fromClasspath = classpathIndex.getResourceAsStream(resName);
+    if (fromClasspath != null || !classPathChanged()) {
+      return fromClasspath;
+    }
+    return getParent().getResourceAsStream(resName);
   }
 
   /**
@@ -188,7 +257,7 @@ public class SandboxClassLoader extends URLClassLoader implements ClassTracker {
       if (config.shouldAcquire(name)) {
         loadedClass =
             PerfStatsCollector.getInstance()
-                .measure("load sandboxed class", () -> maybeInstrumentClass(name));
+                .measure(LOAD_SANDBOXED_CLASS_METRIC, () -> maybeInstrumentClass(name));
       } else {
         loadedClass = getParent().loadClass(name);
       }
@@ -260,6 +329,9 @@ public class SandboxClassLoader extends URLClassLoader implements ClassTracker {
   public void close() throws IOException {
     super.close();
     resourceProvider.close();
+    if (classpathIndex != null && !isClosed) {
+      classpathIndex.release();
+    }
     isClosed = true;
   }
 }
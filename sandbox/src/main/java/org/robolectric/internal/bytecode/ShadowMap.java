@@ -4,6 +4,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.HashMap;
@@ -71,6 +72,18 @@ public class ShadowMap {
     return shadowPickers.containsKey(mutableClass.getName());
   }
 
+  /**
+   * Returns the names of all classes that may be shadowed. Names are canonical for the shadows
+   * provided by {@link ShadowProvider#getShadows()}, and binary otherwise.
+   */
+  public Set<String> getShadowedClassNames() {
+    return ImmutableSet.<String>builder()
+        .addAll(defaultShadows.keySet())
+        .addAll(overriddenShadows.keySet())
+        .addAll(shadowPickers.keySet())
+        .build();
+  }
+
   public ShadowInfo getShadowInfo(Class<?> clazz, ShadowMatcher shadowMatcher) {
     String instrumentedClassName = clazz.getName();
 
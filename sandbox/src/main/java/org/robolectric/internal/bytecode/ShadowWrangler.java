@@ -33,6 +33,7 @@ import org.robolectric.pluginapi.MethodHandleDecorator;
 import org.robolectric.sandbox.ShadowMatcher;
 import org.robolectric.shadow.api.Shadow;
 import org.robolectric.util.PerfStatsCollector;
+import org.robolectric.util.PerfStatsCollector.MetricHandle;
 
 /**
  * ShadowWrangler matches shadowed classes up with corresponding shadows based on a {@link
@@ -58,6 +59,8 @@ public class ShadowWrangler implements ClassHandler {
   private static final Class<?>[] NO_ARGS = new Class<?>[0];
   static final Object NO_SHADOW = new Object();
   private static final MethodHandle NO_SHADOW_HANDLE = constant(Object.class, NO_SHADOW);
+  private static final MetricHandle FIND_SHADOW_METHOD_HANDLE_METRIC =
+      PerfStatsCollector.getInstance().getMetricHandle("find shadow method handle");
   private final ShadowMap shadowMap;
   private final Interceptors interceptors;
   private final ShadowMatcher shadowMatcher;
@@ -150,7 +153,7 @@ public class ShadowWrangler implements ClassHandler {
       throws IllegalAccessException {
     return PerfStatsCollector.getInstance()
         .measure(
-            "find shadow method handle",
+            FIND_SHADOW_METHOD_HANDLE_METRIC,
             () -> {
               MethodType actualType = isStatic ? methodType : methodType.dropParameterTypes(0, 1);
               Class<?>[] paramTypes = actualType.parameterArray();
@@ -1,17 +1,24 @@
 package org.robolectric.internal.bytecode;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.objectweb.asm.Type.ARRAY;
 import static org.objectweb.asm.Type.OBJECT;
 
+import com.google.common.collect.ImmutableList;
 import java.util.HashMap;
 import java.util.Map;
 import org.objectweb.asm.Type;
 
 class TypeMapper {
   private final Map<String, String> classesToRemap;
+  private final ImmutableList<String> remappedInternalNames;
 
   public TypeMapper(Map<String, String> classNameToClassNameMap) {
     classesToRemap = convertToSlashes(classNameToClassNameMap);
+    remappedInternalNames =
+        classNameToClassNameMap.keySet().stream()
+            .map(TypeMapper::internalize)
+            .collect(toImmutableList());
   }
 
   private static Map<String, String> convertToSlashes(Map<String, String> map) {
@@ -29,6 +36,20 @@ class TypeMapper {
     return className.replace('.', '/');
   }
 
+  /**
+   * Returns false if no class named in {@code desc} is remapped, in which case remapping it would
+   * return it unchanged. This avoids taking descriptors and signatures apart for the vast majority
+   * of classes, which refer to no remapped class at all.
+   */
+  boolean mayRemap(String desc) {
+    for (String internalName : remappedInternalNames) {
+      if (desc.contains(internalName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   // remap android/Foo to android/Bar
   String mappedTypeName(String internalName) {
     String remappedInternalName = classesToRemap.get(internalName);
@@ -50,6 +71,9 @@ class TypeMapper {
   }
 
   String remapParams(String desc) {
+    if (!mayRemap(desc)) {
+      return desc;
+    }
     StringBuilder buf = new StringBuilder();
     buf.append("(");
     for (Type type : Type.getArgumentTypes(desc)) {
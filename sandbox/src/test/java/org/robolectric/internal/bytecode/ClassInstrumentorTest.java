@@ -9,10 +9,14 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.robolectric.shadow.api.Shadow;
 
@@ -97,6 +101,139 @@ public class ClassInstrumentorTest {
     assertThat(methodNode.access & Opcodes.ACC_SYNTHETIC).isNotEqualTo(0);
   }
 
+  @Test
+  public void selectiveMethodInstrumentation_leavesMethodsOfUnshadowedClass() {
+    ClassNode classNode = createClassWithRegularMethod();
+    MutableClass clazz =
+        new MutableClass(
+            classNode,
+            InstrumentationConfiguration.newBuilder()
+                .setSelectiveMethodInstrumentation(true)
+                .addShadowedClass("org.example.OtherClass")
+                .build(),
+            classNodeProvider);
+    instrumentor.instrument(clazz);
+
+    MethodNode methodNode = findMethodNode(classNode, "someFunction");
+    assertThat(methodNode.access & Opcodes.ACC_PUBLIC).isNotEqualTo(0);
+    assertThat(hasInvokeDynamic(methodNode)).isFalse();
+
+    // The original method can still be called directly.
+    String someFunctionName = Shadow.directMethodName("org.example.MyClass", "someFunction");
+    MethodNode directMethodNode = findMethodNode(classNode, someFunctionName);
+    assertThat(directMethodNode.access & Opcodes.ACC_PRIVATE).isNotEqualTo(0);
+    MethodInsnNode call =
+        (MethodInsnNode)
+            Iterables.find(
+                directMethodNode.instructions, insn -> insn.getOpcode() == Opcodes.INVOKESPECIAL);
+    assertThat(call.owner).isEqualTo("org/example/MyClass");
+    assertThat(call.name).isEqualTo("someFunction");
+
+    assertThat(clazz.classNode.interfaces).contains(Type.getInternalName(ShadowedObject.class));
+  }
+
+  @Test
+  public void selectiveMethodInstrumentation_instrumentsMethodsOfShadowedClass() {
+    ClassNode classNode = createClassWithRegularMethod();
+    MutableClass clazz =
+        new MutableClass(
+            classNode,
+            InstrumentationConfiguration.newBuilder()
+                .setSelectiveMethodInstrumentation(true)
+                .addShadowedClass("org.example.MyClass")
+                .build(),
+            classNodeProvider);
+    instrumentor.instrument(clazz);
+
+    assertThat(hasInvokeDynamic(findMethodNode(classNode, "someFunction"))).isTrue();
+  }
+
+  @Test
+  public void selectiveMethodInstrumentation_instrumentsNativeMethodsOfUnshadowedClass() {
+    ClassNode classNode = createClassWithNativeMethod();
+    MutableClass clazz =
+        new MutableClass(
+            classNode,
+            InstrumentationConfiguration.newBuilder()
+                .setSelectiveMethodInstrumentation(true)
+                .build(),
+            classNodeProvider);
+    instrumentor.instrument(clazz);
+
+    assertThat(hasInvokeDynamic(findMethodNode(classNode, "someFunction"))).isTrue();
+    findMethodNode(classNode, Shadow.directNativeMethodName("org.example.MyClass", "someFunction"));
+  }
+
+  @Test
+  public void selectiveMethodInstrumentation_matchesNestedClassesByBinaryOrCanonicalName() {
+    InstrumentationConfiguration config =
+        InstrumentationConfiguration.newBuilder()
+            .setSelectiveMethodInstrumentation(true)
+            .addShadowedClass("org.example.Outer.Inner")
+            .build();
+
+    assertThat(config.shouldInstrumentMethodsOf("org.example.Outer$Inner")).isTrue();
+    assertThat(config.shouldInstrumentMethodsOf("org.example.Outer")).isFalse();
+    assertThat(
+            InstrumentationConfiguration.newBuilder()
+                .build()
+                .shouldInstrumentMethodsOf("org.example.Outer"))
+        .isTrue();
+  }
+
+  @Test
+  public void instrument_remapsTranslatedClassesOnly() {
+    ClassWriter writer = new ClassWriter(0);
+    writer.visit(
+        Opcodes.V1_8, Opcodes.ACC_PUBLIC, "org/example/MyClass", null, "java/lang/Object", null);
+    writer
+        .visitField(
+            Opcodes.ACC_PUBLIC,
+            "charsets",
+            "Ljava/nio/charset/Charsets;",
+            "Ljava/util/List<Ljava/nio/charset/Charsets;>;",
+            null)
+        .visitEnd();
+    writer.visitField(Opcodes.ACC_PUBLIC, "name", "Ljava/lang/String;", null, null).visitEnd();
+    writer
+        .visitMethod(
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_NATIVE,
+            "someFunction",
+            "(Ljava/nio/charset/Charsets;I)Ljava/lang/String;",
+            null,
+            null)
+        .visitEnd();
+    writer.visitEnd();
+    InstrumentationConfiguration config =
+        InstrumentationConfiguration.newBuilder()
+            .addClassNameTranslation(
+                "java.nio.charset.Charsets", "java.nio.charset.StandardCharsets")
+            .build();
+
+    byte[] instrumented =
+        instrumentor.instrument(new ClassDetails(writer.toByteArray()), config, classNodeProvider);
+
+    ClassNode classNode = new ClassNode();
+    new ClassReader(instrumented).accept(classNode, 0);
+    FieldNode charsets = Iterables.find(classNode.fields, field -> field.name.equals("charsets"));
+    assertThat(charsets.desc).isEqualTo("Ljava/nio/charset/StandardCharsets;");
+    assertThat(charsets.signature)
+        .isEqualTo("Ljava/util/List<Ljava/nio/charset/StandardCharsets;>;");
+    FieldNode name = Iterables.find(classNode.fields, field -> field.name.equals("name"));
+    assertThat(name.desc).isEqualTo("Ljava/lang/String;");
+    assertThat(findMethodNode(classNode, "someFunction").desc)
+        .isEqualTo("(Ljava/nio/charset/StandardCharsets;I)Ljava/lang/String;");
+  }
+
+  private static boolean hasInvokeDynamic(MethodNode methodNode) {
+    for (AbstractInsnNode insn : methodNode.instructions) {
+      if (insn.getOpcode() == Opcodes.INVOKEDYNAMIC) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static ClassNode createClassWithRegularMethod() {
     ClassNode classNode = new ClassNode();
     classNode.name = "org/example/MyClass";
@@ -0,0 +1,50 @@
+package org.robolectric.internal.bytecode;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+
+/** Test for {@link ClassNodeProvider}. */
+@RunWith(JUnit4.class)
+public class ClassNodeProviderTest {
+  private final ClassNodeProvider classNodeProvider =
+      new ClassNodeProvider() {
+        @Override
+        protected byte[] getClassBytes(String className) throws ClassNotFoundException {
+          try (InputStream in = ClassLoader.getSystemResourceAsStream(className + ".class")) {
+            if (in == null) {
+              throw new ClassNotFoundException(className);
+            }
+            return ByteStreams.toByteArray(in);
+          } catch (IOException e) {
+            throw new ClassNotFoundException(className, e);
+          }
+        }
+      };
+
+  @Test
+  public void getClassNode_readsClassHeader() throws Exception {
+    ClassNode classNode = classNodeProvider.getClassNode("java/util/ArrayList");
+
+    assertThat(classNode.name).isEqualTo("java/util/ArrayList");
+    assertThat(classNode.superName).isEqualTo("java/util/AbstractList");
+    assertThat(classNode.interfaces).contains("java/util/List");
+    assertThat(classNode.access & Opcodes.ACC_INTERFACE).isEqualTo(0);
+  }
+
+  @Test
+  public void getClassNode_interface() throws Exception {
+    ClassNode classNode = classNodeProvider.getClassNode("java/lang/Runnable");
+
+    assertThat(classNode.access & Opcodes.ACC_INTERFACE).isNotEqualTo(0);
+    assertThat(classNode.superName).isEqualTo("java/lang/Object");
+    assertThat(classNode.interfaces).isEmpty();
+  }
+}
@@ -0,0 +1,158 @@
+package org.robolectric.internal.bytecode;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test for {@link ClasspathIndex}. */
+@RunWith(JUnit4.class)
+public class ClasspathIndexTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void findResource_prefersEarlierEntries() throws Exception {
+    File first = newJar("first.jar", "com/example/Foo.class", "first");
+    File second = newJar("second.jar", "com/example/Foo.class", "second");
+    File third = newJar("third.jar", "com/example/other/Bar.class", "third");
+    ClasspathIndex index = ClasspathIndex.forUrls(toUrls(first, second, third));
+
+    assertThat(read(index, "com/example/Foo.class")).isEqualTo("first");
+    assertThat(read(index, "com/example/other/Bar.class")).isEqualTo("third");
+    assertThat(index.findResource("com/example/Baz.class")).isNull();
+    assertThat(index.getResourceAsStream("org/example/Foo.class")).isNull();
+  }
+
+  @Test
+  public void findResource_probesDirectoriesInOrder() throws Exception {
+    File directory = temporaryFolder.newFolder("classes");
+    Path resource = directory.toPath().resolve("com/example/Foo.class");
+    File jar = newJar("lib.jar", "com/example/Foo.class", "jar");
+    ClasspathIndex index = ClasspathIndex.forUrls(toUrls(directory, jar));
+
+    assertThat(read(index, "com/example/Foo.class")).isEqualTo("jar");
+
+    // Directories aren't indexed, so resources added after the index was built are found.
+    Files.createDirectories(resource.getParent());
+    Files.write(resource, "directory".getBytes(UTF_8));
+    assertThat(read(index, "com/example/Foo.class")).isEqualTo("directory");
+  }
+
+  @Test
+  public void findResource_multiReleaseJar() throws Exception {
+    File jar = newJar("mr.jar", "META-INF/versions/11/com/example/Foo.class", "versioned");
+    ClasspathIndex index = ClasspathIndex.forUrls(toUrls(jar));
+
+    assertThat(index.findResource("META-INF/versions/11/com/example/Foo.class")).isNotNull();
+    assertThat(index.findResource("com/example/Bar.class")).isNull();
+  }
+
+  @Test
+  public void findResource_pathingJar() throws Exception {
+    newJar("lib.jar", "com/example/Foo.class", "lib");
+    newJar("other.jar", "com/example/Foo.class", "other");
+    File pathing = newPathingJar("pathing.jar", "lib.jar");
+    File other = new File(temporaryFolder.getRoot(), "other.jar");
+    ClasspathIndex index = ClasspathIndex.forUrls(toUrls(pathing, other));
+
+    // Like a URLClassLoader, the jars a pathing jar refers to are searched before later entries.
+    assertThat(read(index, "com/example/Foo.class")).isEqualTo("lib");
+    try (URLClassLoader classLoader = new URLClassLoader(toUrls(pathing, other), null)) {
+      assertThat(index.findResource("com/example/Foo.class"))
+          .isEqualTo(classLoader.findResource("com/example/Foo.class"));
+    }
+  }
+
+  @Test
+  public void forUrls_sharesIndexes() throws Exception {
+    File jar = newJar("shared.jar", "a.txt", "a");
+
+    assertThat(ClasspathIndex.forUrls(toUrls(jar)))
+        .isSameInstanceAs(ClasspathIndex.forUrls(toUrls(jar)));
+  }
+
+  @Test
+  public void forUrls_rewrittenJar_buildsNewIndex() throws Exception {
+    File jar = newJar("rewritten.jar", "com/example/Foo.class", "old");
+    ClasspathIndex index = ClasspathIndex.forUrls(toUrls(jar));
+
+    writeJar(jar, "com/example/Bar.class", "new");
+    Files.setLastModifiedTime(jar.toPath(), FileTime.fromMillis(jar.lastModified() + 1000));
+    ClasspathIndex newIndex = ClasspathIndex.forUrls(toUrls(jar));
+
+    assertThat(newIndex).isNotSameInstanceAs(index);
+    assertThat(read(newIndex, "com/example/Bar.class")).isEqualTo("new");
+    assertThat(newIndex.findResource("com/example/Foo.class")).isNull();
+  }
+
+  @Test
+  public void release_dropsIndexOnceUnused() throws Exception {
+    File jar = newJar("released.jar", "a.txt", "a");
+    ClasspathIndex index = ClasspathIndex.forUrls(toUrls(jar));
+    assertThat(ClasspathIndex.forUrls(toUrls(jar))).isSameInstanceAs(index);
+    assertThat(read(index, "a.txt")).isEqualTo("a");
+
+    index.release();
+    assertThat(ClasspathIndex.forUrls(toUrls(jar))).isSameInstanceAs(index);
+    index.release();
+    index.release();
+
+    assertThat(ClasspathIndex.forUrls(toUrls(jar))).isNotSameInstanceAs(index);
+  }
+
+  private File newJar(String fileName, String entryName, String contents) throws IOException {
+    File jar = temporaryFolder.newFile(fileName);
+    writeJar(jar, entryName, contents);
+    return jar;
+  }
+
+  private static void writeJar(File jar, String entryName, String contents) throws IOException {
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+      out.putNextEntry(new ZipEntry(entryName));
+      out.write(contents.getBytes(UTF_8));
+      out.closeEntry();
+    }
+  }
+
+  private File newPathingJar(String fileName, String classPath) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+    File jar = temporaryFolder.newFile(fileName);
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()), manifest)) {
+      // The manifest is the only entry.
+    }
+    return jar;
+  }
+
+  private static URL[] toUrls(File... files) throws IOException {
+    URL[] urls = new URL[files.length];
+    for (int i = 0; i < files.length; i++) {
+      urls[i] = files[i].toURI().toURL();
+    }
+    return urls;
+  }
+
+  private static String read(ClasspathIndex index, String name) throws IOException {
+    try (InputStream stream = index.getResourceAsStream(name)) {
+      return new String(stream.readAllBytes(), UTF_8);
+    }
+  }
+}
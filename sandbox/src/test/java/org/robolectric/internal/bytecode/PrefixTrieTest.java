@@ -0,0 +1,42 @@
+package org.robolectric.internal.bytecode;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test for {@link PrefixTrie}. */
+@RunWith(JUnit4.class)
+public class PrefixTrieTest {
+
+  @Test
+  public void matchesPrefixOf() {
+    PrefixTrie trie = new PrefixTrie(ImmutableList.of("android.", "androidx.test", "java."));
+
+    assertThat(trie.matchesPrefixOf("android.view.View")).isTrue();
+    assertThat(trie.matchesPrefixOf("android.")).isTrue();
+    assertThat(trie.matchesPrefixOf("androidx.test.core.app.ApplicationProvider")).isTrue();
+    assertThat(trie.matchesPrefixOf("java.lang.Object")).isTrue();
+
+    assertThat(trie.matchesPrefixOf("android")).isFalse();
+    assertThat(trie.matchesPrefixOf("androidx.core.View")).isFalse();
+    assertThat(trie.matchesPrefixOf("javax.inject.Inject")).isFalse();
+    assertThat(trie.matchesPrefixOf("")).isFalse();
+  }
+
+  @Test
+  public void matchesPrefixOf_nestedPrefixes() {
+    PrefixTrie trie = new PrefixTrie(ImmutableList.of("android.os.", "android."));
+
+    assertThat(trie.matchesPrefixOf("android.os.Looper")).isTrue();
+    assertThat(trie.matchesPrefixOf("android.app.Activity")).isTrue();
+  }
+
+  @Test
+  public void matchesPrefixOf_empty() {
+    assertThat(new PrefixTrie(ImmutableList.of()).matchesPrefixOf("android.view.View")).isFalse();
+    assertThat(new PrefixTrie(ImmutableList.of("")).matchesPrefixOf("android.view.View")).isTrue();
+  }
+}
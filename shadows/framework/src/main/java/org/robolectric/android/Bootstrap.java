@@ -4,6 +4,8 @@ import android.content.res.AssetManager;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.util.DisplayMetrics;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.robolectric.shadows.ShadowDateUtils;
@@ -16,6 +18,11 @@ public class Bootstrap {
   private static DisplayMetrics displayMetrics = new DisplayMetrics();
   private static Resources displayResources;
 
+  // The results of applying qualifiers to a new Configuration and DisplayMetrics, which are the
+  // same for every test that uses the same qualifiers.
+  private static final Map<String, DisplayConfiguration> newDisplayConfigurations =
+      new ConcurrentHashMap<>();
+
   /** internal only */
   public static boolean displaySet = false;
 
@@ -53,6 +60,31 @@ public class Bootstrap {
     displayResources.updateConfiguration(configuration, displayMetrics);
   }
 
+  /**
+   * Applies the given qualifiers to a new {@link Configuration} and {@link DisplayMetrics}, like
+   * {@link #applyQualifiers(String, int, Configuration, DisplayMetrics)}. The results are cached,
+   * so that qualifiers are only parsed once for all tests that use them.
+   *
+   * <p>internal only
+   */
+  public static void applyQualifiersToNewConfiguration(
+      String qualifiers, int apiLevel, Configuration configuration, DisplayMetrics displayMetrics) {
+    String key = apiLevel + ":" + DeviceConfig.useMaxBounds() + ":" + qualifiers;
+    DisplayConfiguration cached = newDisplayConfigurations.get(key);
+    if (cached == null) {
+      Configuration newConfiguration = new Configuration();
+      DisplayMetrics newDisplayMetrics = new DisplayMetrics();
+      applyQualifiers(qualifiers, apiLevel, newConfiguration, newDisplayMetrics);
+      cached = new DisplayConfiguration(newConfiguration, newDisplayMetrics);
+      newDisplayConfigurations.put(key, cached);
+    } else {
+      // DateUtils has a static cache of the last Configuration, so it may need to be reset.
+      ShadowDateUtils.resetLastConfig();
+    }
+    configuration.setTo(cached.configuration);
+    displayMetrics.setTo(cached.displayMetrics);
+  }
+
   public static void applyQualifiers(
       String qualifiersStrs,
       int apiLevel,
@@ -88,6 +120,16 @@ public class Bootstrap {
     ShadowDateUtils.resetLastConfig();
   }
 
+  private static final class DisplayConfiguration {
+    private final Configuration configuration;
+    private final DisplayMetrics displayMetrics;
+
+    private DisplayConfiguration(Configuration configuration, DisplayMetrics displayMetrics) {
+      this.configuration = configuration;
+      this.displayMetrics = displayMetrics;
+    }
+  }
+
   private static int getPlatformVersion(String qualifiers) {
     Matcher m = VERSION_QUALIFIER_PATTERN.matcher(qualifiers);
     if (m.find()) {
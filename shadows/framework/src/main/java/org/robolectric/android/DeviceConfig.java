@@ -201,7 +201,7 @@ public class DeviceConfig {
     }
   }
 
-  private static boolean useMaxBounds() {
+  static boolean useMaxBounds() {
     return Boolean.parseBoolean(
         System.getProperty("robolectric.deviceconfig.useMaxBounds", "true"));
   }
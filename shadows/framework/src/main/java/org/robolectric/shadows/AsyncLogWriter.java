@@ -0,0 +1,246 @@
+package org.robolectric.shadows;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Writes log lines to their {@link PrintStream} on a background thread, in batches.
+ *
+ * <p>The queue of pending log lines is bounded, so a thread that logs faster than the stream can be
+ * written to blocks until there is room, rather than buffering an unbounded amount of logs.
+ *
+ * <p>The background thread runs until {@link #close()} is called. Log lines written after that are
+ * written synchronously by the calling thread, as other threads may still hold on to the writer.
+ */
+final class AsyncLogWriter {
+
+  private static final int QUEUE_CAPACITY = 4096;
+
+  /** Queued by {@link #close()} to stop the writer thread once the logs before it are written. */
+  private static final PendingLog STOP = new PendingLog(null, null, 0, null, null, null);
+
+  private final BlockingQueue<PendingLog> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private final AtomicLong enqueuedCount = new AtomicLong();
+
+  /**
+   * Held for reading while a log line is queued, and for writing by {@link #close()}, so that no
+   * log line can be queued after {@link #STOP}.
+   */
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+  @GuardedBy("closeLock")
+  private boolean closed;
+
+  private final Object writtenLock = new Object();
+
+  @GuardedBy("writtenLock")
+  private long writtenCount = 0;
+
+  @GuardedBy("writtenLock")
+  private boolean writerStopped;
+
+  private final Thread writerThread;
+  private final Thread shutdownHook;
+
+  AsyncLogWriter() {
+    writerThread = new Thread(this::writeLoop, "Robolectric log writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+    shutdownHook = new Thread(this::flush);
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+  }
+
+  /**
+   * Queues a log line to be written to the given stream, or writes it right away if this writer is
+   * closed.
+   */
+  void write(
+      PrintStream stream, String timeString, int level, String tag, String msg, Throwable t) {
+    PendingLog log = new PendingLog(stream, timeString, level, tag, msg, t);
+    closeLock.readLock().lock();
+    try {
+      if (!closed) {
+        enqueuedCount.incrementAndGet();
+        if (enqueue(log)) {
+          return;
+        }
+      }
+    } finally {
+      closeLock.readLock().unlock();
+    }
+    writeBatch(Collections.singletonList(log));
+  }
+
+  /**
+   * Blocks until all log lines queued before this call have been written, or the background thread
+   * has stopped.
+   */
+  void flush() {
+    long target = enqueuedCount.get();
+    synchronized (writtenLock) {
+      boolean interrupted = false;
+      while (writtenCount < target && !writerStopped) {
+        try {
+          writtenLock.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Writes all queued log lines, then stops the background thread and removes the shutdown hook.
+   * Log lines written during and after this call are written synchronously once the queued ones are
+   * written, so that they keep their order.
+   */
+  void close() {
+    closeLock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      enqueue(STOP);
+      boolean interrupted = false;
+      while (writerThread.isAlive()) {
+        try {
+          writerThread.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException e) {
+      // The JVM is already shutting down, and the hook has flushed the logs.
+    }
+  }
+
+  /** Queues the log line, and returns false if the background thread died before it was queued. */
+  private boolean enqueue(PendingLog log) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          if (queue.offer(log, 100, MILLISECONDS)) {
+            return true;
+          }
+          if (!writerThread.isAlive()) {
+            return false;
+          }
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @SuppressWarnings("CatchAndPrintStackTrace")
+  private void writeLoop() {
+    try {
+      List<PendingLog> batch = new ArrayList<>();
+      boolean stopped = false;
+      while (!stopped) {
+        try {
+          batch.add(queue.take());
+        } catch (InterruptedException e) {
+          continue;
+        }
+        queue.drainTo(batch);
+        stopped = batch.remove(STOP);
+        try {
+          writeBatch(batch);
+        } catch (RuntimeException e) {
+          // keep the writer alive, otherwise queued log lines would never be written
+          e.printStackTrace();
+        }
+        synchronized (writtenLock) {
+          writtenCount += batch.size();
+          writtenLock.notifyAll();
+        }
+        batch.clear();
+      }
+    } finally {
+      synchronized (writtenLock) {
+        writerStopped = true;
+        writtenLock.notifyAll();
+      }
+    }
+  }
+
+  /** Writes consecutive log lines for the same stream with a single write. */
+  private static void writeBatch(List<PendingLog> batch) {
+    int start = 0;
+    while (start < batch.size()) {
+      PrintStream stream = batch.get(start).stream;
+      StringWriter buffer = new StringWriter();
+      PrintWriter writer = new PrintWriter(buffer);
+      int end = start;
+      while (end < batch.size() && batch.get(end).stream == stream) {
+        batch.get(end).writeTo(writer);
+        end++;
+      }
+      writer.flush();
+      stream.print(buffer);
+      stream.flush();
+      start = end;
+    }
+  }
+
+  private static final class PendingLog {
+    private final PrintStream stream;
+    private final String timeString;
+    private final int level;
+    private final String tag;
+    private final String msg;
+    private final Throwable throwable;
+
+    private PendingLog(
+        PrintStream stream,
+        String timeString,
+        int level,
+        String tag,
+        String msg,
+        Throwable throwable) {
+      this.stream = stream;
+      this.timeString = timeString;
+      this.level = level;
+      this.tag = tag;
+      this.msg = msg;
+      this.throwable = throwable;
+    }
+
+    private void writeTo(PrintWriter writer) {
+      writer.println(ShadowLog.formatLogLine(timeString, level, tag, msg));
+      if (throwable != null) {
+        throwable.printStackTrace(writer);
+      }
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package org.robolectric.shadows;
+
+import android.content.BroadcastReceiver;
+import android.content.Intent;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import org.robolectric.shadows.ShadowApplication.Wrapper;
+
+/**
+ * The dynamically registered broadcast receivers, indexed by the actions of their intent filters.
+ *
+ * <p>Registering or unregistering a receiver replaces immutable snapshots of the receivers, so
+ * finding the receivers for a broadcast neither takes a lock nor copies all registered receivers.
+ * For each action, the receivers are kept both in registration order and by decreasing priority.
+ */
+final class BroadcastReceiverRegistry {
+  private static final Comparator<Wrapper> BY_DECREASING_PRIORITY =
+      Comparator.<Wrapper>comparingInt(w -> w.getIntentFilter().getPriority()).reversed();
+
+  private final Object lock = new Object();
+
+  @GuardedBy("lock")
+  private final List<Wrapper> receivers = new ArrayList<>();
+
+  private volatile ImmutableList<Wrapper> snapshot = ImmutableList.of();
+
+  private final Map<String, ActionReceivers> receiversByAction = new ConcurrentHashMap<>();
+
+  void register(Wrapper wrapper) {
+    synchronized (lock) {
+      receivers.add(wrapper);
+      snapshot = ImmutableList.copyOf(receivers);
+      for (String action : actionsOf(wrapper)) {
+        receiversByAction.compute(
+            action,
+            (a, current) -> (current == null ? ActionReceivers.EMPTY : current).plus(wrapper));
+      }
+    }
+  }
+
+  /** Unregisters all registrations of the given receiver, returns false if there were none. */
+  boolean unregister(BroadcastReceiver broadcastReceiver) {
+    synchronized (lock) {
+      boolean found = false;
+      Iterator<Wrapper> iterator = receivers.iterator();
+      while (iterator.hasNext()) {
+        Wrapper wrapper = iterator.next();
+        if (wrapper.broadcastReceiver == broadcastReceiver) {
+          iterator.remove();
+          found = true;
+          for (String action : actionsOf(wrapper)) {
+            receiversByAction.computeIfPresent(action, (a, current) -> current.minus(wrapper));
+          }
+        }
+      }
+      if (found) {
+        snapshot = ImmutableList.copyOf(receivers);
+      }
+      return found;
+    }
+  }
+
+  void clear() {
+    synchronized (lock) {
+      receivers.clear();
+      snapshot = ImmutableList.of();
+      receiversByAction.clear();
+    }
+  }
+
+  /** Returns all registered receivers, in registration order. */
+  ImmutableList<Wrapper> getAll() {
+    return snapshot;
+  }
+
+  /** Returns the receivers with a filter for the given action, in registration order. */
+  ImmutableList<Wrapper> getForAction(String action) {
+    ActionReceivers actionReceivers = receiversByAction.get(action);
+    return actionReceivers == null ? ImmutableList.of() : actionReceivers.inRegistrationOrder;
+  }
+
+  /**
+   * Returns the receivers that may receive the given broadcast, either in registration order or by
+   * decreasing priority.
+   *
+   * <p>Broadcasts with a component may be received by any receiver of that class; other broadcasts
+   * only by the receivers with a filter for their action.
+   */
+  List<Wrapper> getCandidates(Intent intent, boolean byPriority) {
+    if (intent.getComponent() != null) {
+      if (!byPriority) {
+        return snapshot;
+      }
+      List<Wrapper> sorted = new ArrayList<>(snapshot);
+      sorted.sort(BY_DECREASING_PRIORITY);
+      return sorted;
+    }
+    if (intent.getAction() == null) {
+      return ImmutableList.of();
+    }
+    ActionReceivers actionReceivers = receiversByAction.get(intent.getAction());
+    if (actionReceivers == null) {
+      return ImmutableList.of();
+    }
+    return byPriority ? actionReceivers.byPriority : actionReceivers.inRegistrationOrder;
+  }
+
+  private static Set<String> actionsOf(Wrapper wrapper) {
+    Set<String> actions = new HashSet<>();
+    Iterator<String> iterator = wrapper.intentFilter.actionsIterator();
+    if (iterator != null) {
+      while (iterator.hasNext()) {
+        actions.add(iterator.next());
+      }
+    }
+    return actions;
+  }
+
+  /** Immutable receivers for a single action. */
+  private static final class ActionReceivers {
+    private static final ActionReceivers EMPTY =
+        new ActionReceivers(ImmutableList.of(), ImmutableList.of());
+
+    private final ImmutableList<Wrapper> inRegistrationOrder;
+    private final ImmutableList<Wrapper> byPriority;
+
+    private ActionReceivers(
+        ImmutableList<Wrapper> inRegistrationOrder, ImmutableList<Wrapper> byPriority) {
+      this.inRegistrationOrder = inRegistrationOrder;
+      this.byPriority = byPriority;
+    }
+
+    private ActionReceivers plus(Wrapper wrapper) {
+      ImmutableList<Wrapper> newInRegistrationOrder =
+          ImmutableList.<Wrapper>builder().addAll(inRegistrationOrder).add(wrapper).build();
+      // Receivers with the same priority stay in registration order.
+      int priority = wrapper.getIntentFilter().getPriority();
+      int index = 0;
+      while (index < byPriority.size()
+          && byPriority.get(index).getIntentFilter().getPriority() >= priority) {
+        index++;
+      }
+      List<Wrapper> newByPriority = new ArrayList<>(byPriority);
+      newByPriority.add(index, wrapper);
+      return new ActionReceivers(newInRegistrationOrder, ImmutableList.copyOf(newByPriority));
+    }
+
+    @Nullable
+    private ActionReceivers minus(Wrapper wrapper) {
+      List<Wrapper> newInRegistrationOrder = new ArrayList<>(inRegistrationOrder);
+      newInRegistrationOrder.remove(wrapper);
+      if (newInRegistrationOrder.isEmpty()) {
+        // removes the action from the map
+        return null;
+      }
+      List<Wrapper> newByPriority = new ArrayList<>(byPriority);
+      newByPriority.remove(wrapper);
+      return new ActionReceivers(
+          ImmutableList.copyOf(newInRegistrationOrder), ImmutableList.copyOf(newByPriority));
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.robolectric.shadows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The description of a legacy bitmap, recorded as a log of parts that are only rendered to text
+ * when the description is read.
+ *
+ * <p>Most tests never read descriptions, so appending must be cheap: parts are kept as they are,
+ * parts that are expensive to render are appended as suppliers, and the descriptions of other
+ * bitmaps are appended as {@link #snapshot() snapshots} that share their parts instead of copying
+ * their text.
+ */
+final class DescriptionLog {
+  // Only ever appended to, a new list is used when the description is replaced, so that snapshots
+  // can share it.
+  private List<Object> parts = new ArrayList<>();
+  private String rendered = "";
+
+  /** Appends the given text. */
+  void append(String text) {
+    if (!text.isEmpty()) {
+      add(text);
+    }
+  }
+
+  /** Appends text that is only rendered when the description is read. It must not be empty. */
+  void appendLazily(Supplier<String> text) {
+    add(text);
+  }
+
+  /** Appends the description of another bitmap, as it was when the snapshot was taken. */
+  void append(Snapshot snapshot) {
+    if (!snapshot.isEmpty()) {
+      add(snapshot);
+    }
+  }
+
+  /** Replaces the description with the given text. */
+  void set(String text) {
+    parts = new ArrayList<>();
+    rendered = "";
+    append(text);
+  }
+
+  boolean isEmpty() {
+    return parts.isEmpty();
+  }
+
+  /** Returns a snapshot of the current description, which doesn't change when this one does. */
+  Snapshot snapshot() {
+    return new Snapshot(parts, parts.size(), rendered);
+  }
+
+  @Override
+  public String toString() {
+    if (rendered == null) {
+      rendered = render(parts, parts.size());
+      // Drop the parts that have been rendered.
+      parts = new ArrayList<>();
+      parts.add(rendered);
+    }
+    return rendered;
+  }
+
+  private void add(Object part) {
+    parts.add(part);
+    rendered = null;
+  }
+
+  private static String render(List<Object> parts, int size) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      Object part = parts.get(i);
+      if (part instanceof Supplier) {
+        builder.append(((Supplier<?>) part).get());
+      } else {
+        builder.append(part);
+      }
+    }
+    return builder.toString();
+  }
+
+  /** An immutable view of a description at some point in time. */
+  static final class Snapshot {
+    private final List<Object> parts;
+    private final int size;
+    private String rendered;
+
+    private Snapshot(List<Object> parts, int size, String rendered) {
+      this.parts = parts;
+      this.size = size;
+      this.rendered = rendered;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    @Override
+    public String toString() {
+      if (rendered == null) {
+        rendered = render(parts, size);
+      }
+      return rendered;
+    }
+  }
+}
@@ -37,6 +37,12 @@ public final class HardwareRenderingScreenshot {
   private static final WeakHashMap<ViewRootImpl, HardwareRenderer> hardwareRenderers =
       new WeakHashMap<>();
 
+  // ImageReaders are reused by subsequent screenshots of the same ViewRootImpl, as long as the view
+  // keeps its size. A reader is closed when the view is resized or the test ends, and dropped along
+  // with its ViewRootImpl. Readers are only attached to a renderer while a screenshot is taken, so
+  // they never receive frames that were drawn for anything else.
+  private static final WeakHashMap<ViewRootImpl, ImageReader> imageReaders = new WeakHashMap<>();
+
   static final String PIXEL_COPY_RENDER_MODE = "robolectric.pixelCopyRenderMode";
 
   static final String USE_EMBEDDED_VIEW_ROOT = "robolectric.useEmbeddedViewRoot";
@@ -65,10 +71,10 @@ public final class HardwareRenderingScreenshot {
     int width = view.getWidth();
     int height = view.getHeight();
 
-    try (ImageReader imageReader =
-        ImageReader.newInstance(width, height, PixelFormat.RGBA_8888, 1)) {
-      ViewRootImpl viewRootImpl = view.getViewRootImpl();
-      Objects.requireNonNull(viewRootImpl, "View not attached");
+    ViewRootImpl viewRootImpl = view.getViewRootImpl();
+    Objects.requireNonNull(viewRootImpl, "View not attached");
+    ImageReader imageReader = getImageReader(viewRootImpl, width, height);
+    try {
       Surface surface = imageReader.getSurface();
 
       if (RuntimeEnvironment.getApiLevel() >= Q) {
@@ -93,10 +99,14 @@ public final class HardwareRenderingScreenshot {
                 });
 
         renderer.setSurface(surface);
-        setupRendererShadowProperties(renderer, view);
-        RenderNode node = getRenderNode(view);
-        renderer.setContentRoot(node);
-        renderer.createRenderRequest().syncAndDraw();
+        try {
+          setupRendererShadowProperties(renderer, view);
+          RenderNode node = getRenderNode(view);
+          renderer.setContentRoot(node);
+          renderer.createRenderRequest().syncAndDraw();
+        } finally {
+          renderer.setSurface(null);
+        }
       } else {
         // Note this API does not set any light source properties, so it will not render
         // drop shadows.
@@ -104,11 +114,39 @@ public final class HardwareRenderingScreenshot {
         view.draw(canvas);
         surface.unlockCanvasAndPost(canvas);
       }
-      Image nativeImage = imageReader.acquireNextImage();
-      Plane[] planes = nativeImage.getPlanes();
-      destBitmap.copyPixelsFromBuffer(planes[0].getBuffer());
-      surface.release();
+      try (Image nativeImage = imageReader.acquireNextImage()) {
+        Plane[] planes = nativeImage.getPlanes();
+        destBitmap.copyPixelsFromBuffer(planes[0].getBuffer());
+      }
+    } catch (RuntimeException e) {
+      // Don't reuse a reader that may still hold an image from the failed screenshot.
+      imageReaders.remove(viewRootImpl);
+      imageReader.close();
+      throw e;
+    }
+  }
+
+  /** Closes the ImageReaders of all ViewRootImpls. */
+  static void reset() {
+    for (ImageReader imageReader : imageReaders.values()) {
+      imageReader.close();
+    }
+    imageReaders.clear();
+  }
+
+  private static ImageReader getImageReader(ViewRootImpl viewRootImpl, int width, int height) {
+    ImageReader imageReader = imageReaders.get(viewRootImpl);
+    if (imageReader != null
+        && imageReader.getWidth() == width
+        && imageReader.getHeight() == height) {
+      return imageReader;
+    }
+    if (imageReader != null) {
+      imageReader.close();
     }
+    imageReader = ImageReader.newInstance(width, height, PixelFormat.RGBA_8888, 1);
+    imageReaders.put(viewRootImpl, imageReader);
+    return imageReader;
   }
 
   private static RenderNode getRenderNode(View view) {
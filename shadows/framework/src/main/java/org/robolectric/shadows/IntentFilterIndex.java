@@ -0,0 +1,178 @@
+package org.robolectric.shadows;
+
+import android.content.ComponentName;
+import android.content.Intent;
+import android.content.IntentFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Index of the intent filters registered for components, used to find the components that may match
+ * an intent without matching the intent against every filter.
+ *
+ * <p>Like the framework's {@code IntentResolver}, components are indexed by the actions, categories
+ * and data schemes of their filters. The index only narrows down the candidates; each candidate
+ * still has to be matched against its filters. MIME types are not indexed, as they may contain
+ * wildcards.
+ *
+ * <p>The index must be kept up to date by calling {@link #reindex} whenever the filters of a
+ * component change. {@link ShadowPackageManager} only stores copies of the filters it is given, so
+ * that they can't change without the index being updated.
+ *
+ * <p>Like the filters it indexes, the index is guarded by {@link ShadowPackageManager#lock}, as
+ * intents may be resolved off the main thread.
+ */
+final class IntentFilterIndex {
+  private static final String ACTION_PREFIX = "action:";
+  private static final String CATEGORY_PREFIX = "category:";
+  private static final String SCHEME_PREFIX = "scheme:";
+
+  /** Key for components with a filter without data schemes, these may match any scheme. */
+  private static final String NO_SCHEME = "no-scheme";
+
+  private final SortedMap<ComponentName, List<IntentFilter>> filters;
+
+  @GuardedBy("ShadowPackageManager.lock")
+  private final Map<String, Set<ComponentName>> componentsByKey = new HashMap<>();
+
+  @GuardedBy("ShadowPackageManager.lock")
+  private final Map<ComponentName, Set<String>> keysByComponent = new HashMap<>();
+
+  IntentFilterIndex(SortedMap<ComponentName, List<IntentFilter>> filters) {
+    this.filters = filters;
+  }
+
+  /** Updates the index with the current filters of the given component. */
+  void reindex(ComponentName componentName) {
+    synchronized (ShadowPackageManager.lock) {
+      remove(componentName);
+      List<IntentFilter> componentFilters = filters.get(componentName);
+      if (componentFilters == null || componentFilters.isEmpty()) {
+        return;
+      }
+      Set<String> keys = new HashSet<>();
+      for (IntentFilter filter : componentFilters) {
+        addKeys(keys, ACTION_PREFIX, filter.actionsIterator());
+        addKeys(keys, CATEGORY_PREFIX, filter.categoriesIterator());
+        if (filter.countDataSchemes() == 0) {
+          keys.add(NO_SCHEME);
+        } else {
+          addKeys(keys, SCHEME_PREFIX, filter.schemesIterator());
+        }
+      }
+      for (String key : keys) {
+        componentsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(componentName);
+      }
+      keysByComponent.put(componentName, keys);
+    }
+  }
+
+  /** Updates the index with the current filters of all the components of the given package. */
+  void reindexPackage(String packageName) {
+    synchronized (ShadowPackageManager.lock) {
+      for (ComponentName componentName : new ArrayList<>(keysByComponent.keySet())) {
+        if (componentName.getPackageName().equals(packageName)) {
+          remove(componentName);
+        }
+      }
+      for (ComponentName componentName :
+          ShadowPackageManager.mapForPackage(filters, packageName).keySet()) {
+        reindex(componentName);
+      }
+    }
+  }
+
+  void clear() {
+    synchronized (ShadowPackageManager.lock) {
+      componentsByKey.clear();
+      keysByComponent.clear();
+    }
+  }
+
+  /**
+   * Returns the components that may have a filter matching the given intent, in {@link
+   * ComponentName} order, or {@code null} if the intent can't be narrowed down using the index.
+   */
+  @Nullable
+  SortedSet<ComponentName> findCandidates(Intent intent) {
+    synchronized (ShadowPackageManager.lock) {
+      List<Set<ComponentName>> constraints = new ArrayList<>();
+      if (intent.getAction() != null) {
+        constraints.add(componentsFor(ACTION_PREFIX + intent.getAction()));
+      }
+      if (intent.getCategories() != null) {
+        for (String category : intent.getCategories()) {
+          constraints.add(componentsFor(CATEGORY_PREFIX + category));
+        }
+      }
+      String scheme = intent.getScheme();
+      if (scheme != null) {
+        Set<ComponentName> withScheme = new HashSet<>(componentsFor(SCHEME_PREFIX + scheme));
+        withScheme.addAll(componentsFor(NO_SCHEME));
+        constraints.add(withScheme);
+      }
+      if (constraints.isEmpty()) {
+        return null;
+      }
+
+      Set<ComponentName> smallest = constraints.get(0);
+      for (Set<ComponentName> constraint : constraints) {
+        if (constraint.size() < smallest.size()) {
+          smallest = constraint;
+        }
+      }
+      SortedSet<ComponentName> candidates = new TreeSet<>();
+      candidates:
+      for (ComponentName componentName : smallest) {
+        for (Set<ComponentName> constraint : constraints) {
+          if (!constraint.contains(componentName)) {
+            continue candidates;
+          }
+        }
+        candidates.add(componentName);
+      }
+      return candidates;
+    }
+  }
+
+  @GuardedBy("ShadowPackageManager.lock")
+  private Set<ComponentName> componentsFor(String key) {
+    Set<ComponentName> components = componentsByKey.get(key);
+    return components == null ? Collections.emptySet() : components;
+  }
+
+  @GuardedBy("ShadowPackageManager.lock")
+  private void remove(ComponentName componentName) {
+    Set<String> keys = keysByComponent.remove(componentName);
+    if (keys == null) {
+      return;
+    }
+    for (String key : keys) {
+      Set<ComponentName> components = componentsByKey.get(key);
+      components.remove(componentName);
+      if (components.isEmpty()) {
+        componentsByKey.remove(key);
+      }
+    }
+  }
+
+  private static void addKeys(Set<String> keys, String prefix, @Nullable Iterator<String> values) {
+    if (values == null) {
+      return;
+    }
+    while (values.hasNext()) {
+      keys.add(prefix + values.next());
+    }
+  }
+}
@@ -5,6 +5,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static org.robolectric.annotation.LooperMode.Mode.INSTRUMENTATION_TEST;
 import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
 import static org.robolectric.shadows.ShadowLooper.looperMode;
+import static org.robolectric.util.reflector.Reflector.reflector;
 
 import android.os.Handler;
 import android.os.Looper;
@@ -27,9 +28,16 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.GuardedBy;
 import org.robolectric.annotation.LooperMode.Mode;
 import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowPausedLooper.LooperReflector;
 
 final class LooperControlService {
 
+  /**
+   * System property that enables running control tasks for a paused Looper directly on the calling
+   * thread, rather than handing them off to the blocked Looper thread.
+   */
+  static final String INLINE_CONTROL_TASKS_PROPERTY = "robolectric.looper.inlineControlTasks";
+
   private final Executor looperExecutor;
   private final Looper looper;
 
@@ -59,6 +67,12 @@ final class LooperControlService {
   private final LinkedBlockingQueue<CancelableRunnableFuture> controlQueue =
       new LinkedBlockingQueue<>();
 
+  // Whether a control task is running for a paused Looper, either on the Looper thread itself or
+  // inline on a calling thread that is impersonating the Looper thread. Control tasks wait for this
+  // to be false before they start, so they never run concurrently.
+  @GuardedBy("lock")
+  private boolean controlTaskRunning = false;
+
   LooperControlService(Looper looper) {
     this.looperExecutor = new HandlerExecutor(looper);
     this.looper = looper;
@@ -176,22 +190,106 @@ final class LooperControlService {
       checkState(
           looper != getMainLooper() || looperMode() == Mode.INSTRUMENTATION_TEST,
           "Main looper can only be controlled from its thread in PAUSED mode");
-      PropagatingRunnableFuture task = PropagatingRunnableFuture.create(runnable, cancelable);
-      task.addListener(() -> controlQueue.remove(task), MoreExecutors.directExecutor());
-      synchronized (lock) {
-        checkState(state != State.SHUTDOWN);
-        controlQueue.add(task);
-        if (state == State.UNPAUSED) {
-          looperExecutor.execute(task);
-        }
+      if (!tryExecuteInline(runnable)) {
+        executeOnLooperThread(runnable, cancelable);
       }
-      getAndThrow(task);
     }
     // throw immediately if looper died while executing tasks
     ShadowPausedMessageQueue sq = Shadow.extract(looper.getQueue());
     sq.checkQueueState();
   }
 
+  private void executeOnLooperThread(Runnable runnable, boolean cancelable) {
+    PropagatingRunnableFuture task = PropagatingRunnableFuture.create(runnable, cancelable);
+    task.addListener(() -> controlQueue.remove(task), MoreExecutors.directExecutor());
+    synchronized (lock) {
+      checkState(state != State.SHUTDOWN);
+      controlQueue.add(task);
+      if (state == State.UNPAUSED) {
+        looperExecutor.execute(task);
+      }
+    }
+    getAndThrow(task);
+  }
+
+  /**
+   * Runs the given control task on the calling thread if the Looper is paused and its thread is
+   * blocked waiting for control tasks.
+   *
+   * <p>While the task runs, the calling thread impersonates the Looper thread: {@link
+   * Looper#myLooper()} returns the controlled Looper and {@link Looper#getThread()} returns the
+   * calling thread, so thread identity checks (e.g. RobolectricThreadChecker) behave as if the task
+   * ran on the Looper thread.
+   *
+   * @return false if the task could not be run inline and should be handed off to the Looper thread
+   */
+  private boolean tryExecuteInline(Runnable runnable) {
+    if (!Boolean.getBoolean(INLINE_CONTROL_TASKS_PROPERTY)) {
+      return false;
+    }
+    ThreadLocal<Looper> looperThreadLocal = reflector(LooperReflector.class).getThreadLocal();
+    Looper callerLooper = looperThreadLocal.get();
+    // The Looper's thread is swapped under the same lock as controlTaskRunning. The Looper thread
+    // only runs a control task after startControlTask() acquires the lock, so it sees its own
+    // thread restored by then. Other threads may read either thread without the lock, but neither
+    // is their own, so their Looper#getThread() identity checks are unaffected.
+    Thread looperThread;
+    synchronized (lock) {
+      if (state != State.PAUSED || !controlQueue.isEmpty() || controlTaskRunning) {
+        return false;
+      }
+      controlTaskRunning = true;
+      looperThread = looper.getThread();
+      reflector(LooperReflector.class, looper).setThread(Thread.currentThread());
+    }
+    looperThreadLocal.set(looper);
+    try {
+      runnable.run();
+      return true;
+    } finally {
+      if (callerLooper == null) {
+        // don't leave an entry for the Looper thread local in the calling thread's map
+        looperThreadLocal.remove();
+      } else {
+        looperThreadLocal.set(callerLooper);
+      }
+      synchronized (lock) {
+        reflector(LooperReflector.class, looper).setThread(looperThread);
+        controlTaskRunning = false;
+        lock.notifyAll();
+        if (state == State.UNPAUSED) {
+          // the task unpaused the Looper, wake up PauseRunnable so the Looper thread resumes
+          controlQueue.add(new EmptyCancelableFuture());
+        }
+      }
+    }
+  }
+
+  /** Waits until no other control task is running, and marks a control task as running. */
+  private void startControlTask() {
+    synchronized (lock) {
+      boolean interrupted = false;
+      while (controlTaskRunning) {
+        try {
+          lock.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      controlTaskRunning = true;
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void finishControlTask() {
+    synchronized (lock) {
+      controlTaskRunning = false;
+      lock.notifyAll();
+    }
+  }
+
   private static void getAndThrow(Future<?> task) {
     try {
       task.get();
@@ -325,9 +423,17 @@ final class LooperControlService {
         state = State.PAUSED;
       }
       checkState(waitForPausedFuture.markDone());
+      // the notifier only needs to be in the queue until pause has started
+      controlQueue.remove(waitForPausedFuture);
       while (isPaused()) {
         Runnable task = Uninterruptibles.takeUninterruptibly(controlQueue);
-        task.run();
+        // an inline control task may have started before this one was queued
+        startControlTask();
+        try {
+          task.run();
+        } finally {
+          finishControlTask();
+        }
       }
     }
   }
@@ -0,0 +1,261 @@
+package org.robolectric.shadows;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.robolectric.util.PerfStatsCollector;
+
+/**
+ * Captures screenshots of views and encodes them as PNG, or compares them to reference bitmaps, on
+ * a pool of worker threads.
+ *
+ * <p>Only capturing a view runs on the main looper thread; the returned {@link Future} completes
+ * once the screenshot has been processed on a worker thread, so that screenshot tests don't wait
+ * for PNG encoding between UI interactions.
+ *
+ * <p>Each screenshot is held in memory until it has been processed. At most {@code maxPending}
+ * screenshots are pending at any time; capturing another one blocks until an earlier one is done.
+ */
+public final class ScreenshotPipeline implements AutoCloseable {
+
+  private static final AtomicInteger pipelineCount = new AtomicInteger();
+
+  private final ExecutorService executor;
+  private final Semaphore pendingPermits;
+
+  /**
+   * Creates a pipeline that processes screenshots on {@code threads} worker threads, with at most
+   * {@code maxPending} screenshots pending.
+   */
+  public ScreenshotPipeline(int threads, int maxPending) {
+    checkArgument(threads > 0, "threads must be positive: %s", threads);
+    checkArgument(maxPending > 0, "maxPending must be positive: %s", maxPending);
+    this.executor = Executors.newFixedThreadPool(threads, newThreadFactory());
+    this.pendingPermits = new Semaphore(maxPending);
+  }
+
+  /**
+   * Creates a pipeline with a worker thread per processor, and twice as many pending screenshots.
+   */
+  public ScreenshotPipeline() {
+    this(
+        Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /** Captures the given view, and encodes the screenshot as PNG in the background. */
+  public Future<byte[]> captureAsPng(View view) throws InterruptedException {
+    pendingPermits.acquire();
+    Bitmap screenshot;
+    try {
+      screenshot = capture(view);
+    } catch (RuntimeException | Error e) {
+      pendingPermits.release();
+      throw e;
+    }
+    return submit(screenshot, () -> encodePng(screenshot));
+  }
+
+  /**
+   * Encodes a copy of the given bitmap as PNG in the background. The bitmap may be modified or
+   * recycled once this method returns.
+   */
+  public Future<byte[]> encodeAsPng(Bitmap bitmap) throws InterruptedException {
+    pendingPermits.acquire();
+    Bitmap copy;
+    try {
+      copy = bitmap.copy(bitmap.getConfig(), /* isMutable= */ false);
+    } catch (RuntimeException | Error e) {
+      pendingPermits.release();
+      throw e;
+    }
+    return submit(copy, () -> encodePng(copy));
+  }
+
+  /**
+   * Captures the given view, and compares the screenshot to {@code expected} in the background.
+   *
+   * <p>Pixels are considered equal if none of their channels differ by more than {@code tolerance},
+   * so that small differences in anti-aliasing and blending don't fail comparisons. The expected
+   * bitmap must not be modified or recycled until the comparison is done.
+   */
+  public Future<Comparison> captureAndCompare(View view, Bitmap expected, int tolerance)
+      throws InterruptedException {
+    checkArgument(tolerance >= 0 && tolerance <= 255, "tolerance out of range: %s", tolerance);
+    pendingPermits.acquire();
+    Bitmap screenshot;
+    try {
+      screenshot = capture(view);
+    } catch (RuntimeException | Error e) {
+      pendingPermits.release();
+      throw e;
+    }
+    return submit(screenshot, () -> compare(screenshot, expected, tolerance));
+  }
+
+  /**
+   * Stops accepting screenshots. Screenshots that were already captured are still processed, but
+   * this method doesn't wait for them.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private <T> Future<T> submit(Bitmap screenshot, Callable<T> task) {
+    try {
+      return executor.submit(
+          () -> {
+            try {
+              return task.call();
+            } finally {
+              screenshot.recycle();
+              pendingPermits.release();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      screenshot.recycle();
+      pendingPermits.release();
+      throw e;
+    }
+  }
+
+  private static Bitmap capture(View view) {
+    FutureTask<Bitmap> captureTask =
+        new FutureTask<>(
+            () ->
+                PerfStatsCollector.getInstance()
+                    .measure("ScreenshotPipeline-Capture", () -> draw(view)));
+    ShadowInstrumentation.runOnMainSyncNoIdle(captureTask);
+    try {
+      return captureTask.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while capturing " + view, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to capture " + view, e.getCause());
+    }
+  }
+
+  private static Bitmap draw(View view) {
+    Bitmap bitmap = Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888);
+    if (HardwareRenderingScreenshot.canTakeScreenshot(view)) {
+      HardwareRenderingScreenshot.takeScreenshot(view, bitmap);
+    } else {
+      view.draw(new Canvas(bitmap));
+    }
+    return bitmap;
+  }
+
+  private static byte[] encodePng(Bitmap bitmap) {
+    return PerfStatsCollector.getInstance()
+        .measure(
+            "ScreenshotPipeline-Encode",
+            () -> {
+              ByteArrayOutputStream stream = new ByteArrayOutputStream();
+              if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream)) {
+                throw new IllegalStateException("Failed to encode screenshot as PNG");
+              }
+              return stream.toByteArray();
+            });
+  }
+
+  private static Comparison compare(Bitmap actual, Bitmap expected, int tolerance) {
+    return PerfStatsCollector.getInstance()
+        .measure(
+            "ScreenshotPipeline-Compare",
+            () -> {
+              int width = actual.getWidth();
+              int height = actual.getHeight();
+              if (width != expected.getWidth() || height != expected.getHeight()) {
+                return new Comparison(width * height, width * height);
+              }
+              int[] actualPixels = new int[width];
+              int[] expectedPixels = new int[width];
+              int differentPixels = 0;
+              // Compare a row at a time, to avoid holding two more copies of the whole bitmap.
+              for (int y = 0; y < height; y++) {
+                actual.getPixels(actualPixels, 0, width, 0, y, width, 1);
+                expected.getPixels(expectedPixels, 0, width, 0, y, width, 1);
+                for (int x = 0; x < width; x++) {
+                  if (!isWithinTolerance(actualPixels[x], expectedPixels[x], tolerance)) {
+                    differentPixels++;
+                  }
+                }
+              }
+              return new Comparison(differentPixels, width * height);
+            });
+  }
+
+  private static boolean isWithinTolerance(int actual, int expected, int tolerance) {
+    if (actual == expected) {
+      return true;
+    }
+    for (int shift = 0; shift < 32; shift += 8) {
+      int delta = ((actual >>> shift) & 0xff) - ((expected >>> shift) & 0xff);
+      if (Math.abs(delta) > tolerance) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ThreadFactory newThreadFactory() {
+    String prefix = "ScreenshotPipeline-" + pipelineCount.incrementAndGet() + "-";
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** The result of comparing a screenshot to a reference bitmap. */
+  public static final class Comparison {
+    private final int differentPixelCount;
+    private final int pixelCount;
+
+    private Comparison(int differentPixelCount, int pixelCount) {
+      this.differentPixelCount = differentPixelCount;
+      this.pixelCount = pixelCount;
+    }
+
+    /**
+     * Returns the number of pixels that differ by more than the tolerance, or all pixels if the
+     * sizes differ.
+     */
+    public int getDifferentPixelCount() {
+      return differentPixelCount;
+    }
+
+    /** Returns the number of pixels of the screenshot. */
+    public int getPixelCount() {
+      return pixelCount;
+    }
+
+    /** Returns whether all pixels are within the tolerance. */
+    public boolean matches() {
+      return differentPixelCount == 0;
+    }
+
+    @Override
+    public String toString() {
+      return "Comparison{" + differentPixelCount + " of " + pixelCount + " pixels differ}";
+    }
+  }
+}
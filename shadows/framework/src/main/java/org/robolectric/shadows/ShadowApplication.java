@@ -79,6 +79,22 @@ public class ShadowApplication extends ShadowContextWrapper {
         ReflectionHelpers.ClassParameter.from(Context.class, context));
   }
 
+  /**
+   * Attaches an application that was created for a previous test to the base context of the current
+   * test, and clears the state recorded by this shadow for the previous test.
+   *
+   * <p>internal only
+   */
+  public void callReattach(Context context) {
+    // Application.attach() fails if a base context is already set.
+    ReflectionHelpers.setField(ContextWrapper.class, realApplication, "mBase", null);
+    shownToasts.clear();
+    latestPopupMenu = null;
+    latestPopupWindow = null;
+    latestListPopupWindow = null;
+    callAttach(context);
+  }
+
   public List<Toast> getShownToasts() {
     return shownToasts;
   }
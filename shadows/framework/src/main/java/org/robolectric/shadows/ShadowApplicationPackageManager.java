@@ -769,13 +769,21 @@ public class ShadowApplicationPackageManager extends ShadowPackageManager {
         return ImmutableList.of();
       } else {
         List<ResolveInfo> resolveInfoList = new ArrayList<>();
-        Map<ComponentName, List<IntentFilter>> filtersForPackage =
+        SortedMap<ComponentName, List<IntentFilter>> filtersForPackage =
             mapForPackage(filters, intent.getPackage());
+        // Only match the components whose filters may match the intent according to the index.
+        Set<ComponentName> candidates = intentFilterIndexFor(filters).findCandidates(intent);
+        if (candidates == null) {
+          candidates = filtersForPackage.keySet();
+        }
         components:
-        for (Map.Entry<ComponentName, List<IntentFilter>> componentEntry :
-            filtersForPackage.entrySet()) {
-          ComponentName componentName = componentEntry.getKey();
-          for (IntentFilter filter : componentEntry.getValue()) {
+        for (ComponentName componentName : candidates) {
+          List<IntentFilter> componentFilters = filtersForPackage.get(componentName);
+          if (componentFilters == null) {
+            // not in the intent's package
+            continue;
+          }
+          for (IntentFilter filter : componentFilters) {
             int match = matchIntentFilter(intent, filter);
             if (match > 0) {
               PackageInfo packageInfo = packageInfos.get(componentName.getPackageName());
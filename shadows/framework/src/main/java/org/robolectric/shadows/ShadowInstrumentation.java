@@ -43,10 +43,8 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,7 +54,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -96,8 +93,7 @@ public class ShadowInstrumentation {
   private final List<ServiceConnection> unboundServiceConnections =
       Collections.synchronizedList(new ArrayList<>());
 
-  @GuardedBy("itself")
-  private final List<Wrapper> registeredReceivers = new ArrayList<>();
+  private final BroadcastReceiverRegistry registeredReceivers = new BroadcastReceiverRegistry();
 
   // map of PermissionKey to granted permissions
   private final Map<PermissionKey, Set<String>> grantedPermissionsMap =
@@ -268,8 +264,12 @@ public class ShadowInstrumentation {
       Context context) {
     List<Wrapper> receivers =
         getAppropriateWrappers(
-            context, userHandle, intent, receiverPermission, /* broadcastOptions= */ null);
-    sortByPriority(receivers);
+            context,
+            userHandle,
+            intent,
+            receiverPermission,
+            /* broadcastOptions= */ null,
+            /* byPriority= */ true);
     if (resultReceiver != null) {
       receivers.add(new Wrapper(resultReceiver, null, context, null, scheduler, 0));
     }
@@ -277,37 +277,34 @@ public class ShadowInstrumentation {
   }
 
   void assertNoBroadcastListenersOfActionRegistered(ContextWrapper context, String action) {
-    synchronized (registeredReceivers) {
-      for (Wrapper registeredReceiver : registeredReceivers) {
-        if (registeredReceiver.context == context.getBaseContext()) {
-          Iterator<String> actions = registeredReceiver.intentFilter.actionsIterator();
-          while (actions.hasNext()) {
-            if (actions.next().equals(action)) {
-              RuntimeException e =
-                  new IllegalStateException(
-                      "Unexpected BroadcastReceiver on "
-                          + context
-                          + " with action "
-                          + action
-                          + " "
-                          + registeredReceiver.broadcastReceiver
-                          + " that was originally registered here:");
-              e.setStackTrace(registeredReceiver.exception.getStackTrace());
-              throw e;
-            }
-          }
-        }
+    for (Wrapper registeredReceiver : registeredReceivers.getForAction(action)) {
+      if (registeredReceiver.context == context.getBaseContext()) {
+        RuntimeException e =
+            new IllegalStateException(
+                "Unexpected BroadcastReceiver on "
+                    + context
+                    + " with action "
+                    + action
+                    + " "
+                    + registeredReceiver.broadcastReceiver
+                    + " that was originally registered here:");
+        e.setStackTrace(registeredReceiver.exception.getStackTrace());
+        throw e;
       }
     }
   }
 
-  /** Returns the BroadcastReceivers wrappers, matching intent's action and permissions. */
+  /**
+   * Returns the BroadcastReceivers wrappers, matching intent's action and permissions, either in
+   * registration order or by decreasing priority.
+   */
   private List<Wrapper> getAppropriateWrappers(
       Context context,
       @Nullable UserHandle userHandle,
       Intent intent,
       String receiverPermission,
-      @Nullable Bundle broadcastOptions) {
+      @Nullable Bundle broadcastOptions,
+      boolean byPriority) {
     broadcastIntents.add(intent);
     this.broadcastOptions.put(intent, broadcastOptions);
 
@@ -321,13 +318,7 @@ public class ShadowInstrumentation {
     }
 
     List<Wrapper> result = new ArrayList<>();
-
-    List<Wrapper> copy = new ArrayList<>();
-    synchronized (registeredReceivers) {
-      copy.addAll(registeredReceivers);
-    }
-
-    for (Wrapper wrapper : copy) {
+    for (Wrapper wrapper : registeredReceivers.getCandidates(intent, byPriority)) {
       if (broadcastReceiverMatchesIntent(context, wrapper, intent, receiverPermission)) {
         result.add(wrapper);
       }
@@ -514,7 +505,13 @@ public class ShadowInstrumentation {
       @Nullable Bundle broadcastOptions,
       int resultCode) {
     List<Wrapper> wrappers =
-        getAppropriateWrappers(context, userHandle, intent, receiverPermission, broadcastOptions);
+        getAppropriateWrappers(
+            context,
+            userHandle,
+            intent,
+            receiverPermission,
+            broadcastOptions,
+            /* byPriority= */ false);
     postToWrappers(wrappers, intent, context, resultCode);
   }
 
@@ -526,18 +523,11 @@ public class ShadowInstrumentation {
             /* userHandle= */ null,
             intent,
             receiverPermission,
-            /* broadcastOptions= */ null);
-    // sort by the decrease of priorities
-    sortByPriority(wrappers);
-
+            /* broadcastOptions= */ null,
+            /* byPriority= */ true);
     postOrderedToWrappers(wrappers, intent, 0, null, null, context);
   }
 
-  private void sortByPriority(List<Wrapper> wrappers) {
-    wrappers.sort(
-        Comparator.<Wrapper>comparingInt(w -> w.getIntentFilter().getPriority()).reversed());
-  }
-
   List<Intent> getBroadcastIntents() {
     return broadcastIntents;
   }
@@ -907,10 +897,8 @@ public class ShadowInstrumentation {
       }
     }
     if (receiver != null) {
-      synchronized (registeredReceivers) {
-        registeredReceivers.add(
-            new Wrapper(receiver, filter, context, broadcastPermission, scheduler, flags));
-      }
+      registeredReceivers.register(
+          new Wrapper(receiver, filter, context, broadcastPermission, scheduler, flags));
     }
     return processStickyIntents(filter, receiver, context);
   }
@@ -936,28 +924,13 @@ public class ShadowInstrumentation {
   }
 
   void unregisterReceiver(BroadcastReceiver broadcastReceiver) {
-    boolean found = false;
-
-    synchronized (registeredReceivers) {
-      Iterator<Wrapper> iterator = registeredReceivers.iterator();
-      while (iterator.hasNext()) {
-        Wrapper wrapper = iterator.next();
-        if (wrapper.broadcastReceiver == broadcastReceiver) {
-          iterator.remove();
-          found = true;
-        }
-      }
-    }
-
-    if (!found) {
+    if (!registeredReceivers.unregister(broadcastReceiver)) {
       throw new IllegalArgumentException("Receiver not registered: " + broadcastReceiver);
     }
   }
 
   void clearRegisteredReceivers() {
-    synchronized (registeredReceivers) {
-      registeredReceivers.clear();
-    }
+    registeredReceivers.clear();
   }
 
   /**
@@ -965,14 +938,8 @@ public class ShadowInstrumentation {
    */
   @Deprecated
   boolean hasReceiverForIntent(Intent intent) {
-    synchronized (registeredReceivers) {
-      for (Wrapper wrapper : registeredReceivers) {
-        if (wrapper.intentFilter.matchAction(intent.getAction())) {
-          return true;
-        }
-      }
-    }
-    return false;
+    return intent.getAction() != null
+        && !registeredReceivers.getForAction(intent.getAction()).isEmpty();
   }
 
   /**
@@ -982,11 +949,9 @@ public class ShadowInstrumentation {
   List<BroadcastReceiver> getReceiversForIntent(Intent intent) {
     ArrayList<BroadcastReceiver> broadcastReceivers = new ArrayList<>();
 
-    synchronized (registeredReceivers) {
-      for (Wrapper wrapper : registeredReceivers) {
-        if (wrapper.intentFilter.matchAction(intent.getAction())) {
-          broadcastReceivers.add(wrapper.getBroadcastReceiver());
-        }
+    if (intent.getAction() != null) {
+      for (Wrapper wrapper : registeredReceivers.getForAction(intent.getAction())) {
+        broadcastReceivers.add(wrapper.getBroadcastReceiver());
       }
     }
     return broadcastReceivers;
@@ -996,12 +961,7 @@ public class ShadowInstrumentation {
    * @return copy of the list of {@link Wrapper}s for registered receivers
    */
   ImmutableList<Wrapper> getRegisteredReceivers() {
-    ImmutableList<Wrapper> copy;
-    synchronized (registeredReceivers) {
-      copy = ImmutableList.copyOf(registeredReceivers);
-    }
-
-    return copy;
+    return registeredReceivers.getAll();
   }
 
   int checkPermission(String permission, int pid, int uid) {
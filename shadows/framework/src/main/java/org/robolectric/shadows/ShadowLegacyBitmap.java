@@ -69,7 +69,7 @@ public class ShadowLegacyBitmap extends ShadowBitmap {
   private BufferedImage bufferedImage;
   private Bitmap.Config config;
   private boolean mutable = true;
-  private String description = "";
+  private final DescriptionLog description = new DescriptionLog();
   private boolean recycled = false;
   private boolean hasMipMap;
   private boolean requestPremultiplied = true;
@@ -149,7 +149,7 @@ public class ShadowLegacyBitmap extends ShadowBitmap {
     ShadowLegacyBitmap shadowNewBitmap = Shadow.extract(newBitmap);
 
     ShadowLegacyBitmap shadowSrcBitmap = Shadow.extract(src);
-    shadowNewBitmap.appendDescription(shadowSrcBitmap.getDescription());
+    shadowNewBitmap.description.append(shadowSrcBitmap.description.snapshot());
     shadowNewBitmap.appendDescription(" at (" + x + "," + y + ")");
     shadowNewBitmap.appendDescription(" with width " + width + " and height " + height);
 
@@ -261,7 +261,7 @@ public class ShadowLegacyBitmap extends ShadowBitmap {
     ShadowLegacyBitmap shadowBitmap = Shadow.extract(scaledBitmap);
 
     ShadowLegacyBitmap shadowSrcBitmap = Shadow.extract(src);
-    shadowBitmap.appendDescription(shadowSrcBitmap.getDescription());
+    shadowBitmap.description.append(shadowSrcBitmap.description.snapshot());
     shadowBitmap.appendDescription(" scaled to " + dstWidth + " x " + dstHeight);
     if (filter) {
       shadowBitmap.appendDescription(" with filter true");
@@ -587,17 +587,21 @@ public class ShadowLegacyBitmap extends ShadowBitmap {
 
   @Override
   public void appendDescription(String s) {
-    description += s;
+    description.append(s);
   }
 
   @Override
   public String getDescription() {
-    return description;
+    return description.toString();
   }
 
   @Override
   public void setDescription(String s) {
-    description = s;
+    description.set(s);
+  }
+
+  DescriptionLog getDescriptionLog() {
+    return description;
   }
 
   @Implementation
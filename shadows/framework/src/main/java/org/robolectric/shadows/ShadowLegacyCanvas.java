@@ -40,6 +40,15 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
   private static final NativeObjRegistry<NativeCanvas> nativeObjectRegistry =
       new NativeObjRegistry<>(NativeCanvas.class);
 
+  /**
+   * System property to disable recording the history and description of draw operations, for tests
+   * that don't inspect them.
+   */
+  public static final String RECORD_DRAW_HISTORY_PROPERTY =
+      "robolectric.legacyCanvas.recordDrawHistory";
+
+  private static volatile boolean recordDrawHistory = recordDrawHistoryByDefault();
+
   @RealObject protected Canvas realCanvas;
 
   private final List<RoundRectPaintHistoryEvent> roundRectPaintEvents = new ArrayList<>();
@@ -84,6 +93,24 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
     return shadowBitmap.getDescription();
   }
 
+  private DescriptionLog getDescriptionLog() {
+    ShadowLegacyBitmap shadowBitmap = Shadow.extract(targetBitmap);
+    return shadowBitmap.getDescriptionLog();
+  }
+
+  /**
+   * Sets whether draw operations are recorded in the canvas history and the description of the
+   * target bitmap. Drawing into the target bitmap is not affected. Recording is enabled by default,
+   * unless the {@link #RECORD_DRAW_HISTORY_PROPERTY} system property is set to false.
+   */
+  public static void setRecordDrawHistory(boolean recordDrawHistory) {
+    ShadowLegacyCanvas.recordDrawHistory = recordDrawHistory;
+  }
+
+  private static boolean recordDrawHistoryByDefault() {
+    return Boolean.parseBoolean(System.getProperty(RECORD_DRAW_HISTORY_PROPERTY, "true"));
+  }
+
   @Implementation
   protected void setBitmap(Bitmap bitmap) {
     targetBitmap = bitmap;
@@ -91,22 +118,34 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
 
   @Implementation
   protected void drawText(String text, float x, float y, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, text));
   }
 
   @Implementation
   protected void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     drawnTextEventHistory.add(
         new TextHistoryEvent(x, y, paint, text.subSequence(start, end).toString()));
   }
 
   @Implementation
   protected void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, new String(text, index, count)));
   }
 
   @Implementation
   protected void drawText(String text, int start, int end, float x, float y, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, text.substring(start, end)));
   }
 
@@ -135,21 +174,28 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
 
   @Implementation
   protected void drawColor(int color) {
-    appendDescription("draw color " + color);
+    if (recordDrawHistory) {
+      getDescriptionLog().appendLazily(() -> "draw color " + color);
+    }
   }
 
   @Implementation
   protected void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
-    describeBitmap(bitmap, paint);
-
-    int x = (int) (left + translateX);
-    int y = (int) (top + translateY);
-    if (x != 0 || y != 0) {
-      appendDescription(" at (" + x + "," + y + ")");
-    }
+    if (recordDrawHistory) {
+      describeBitmap(bitmap, paint);
+
+      DescriptionLog description = getDescriptionLog();
+      int x = (int) (left + translateX);
+      int y = (int) (top + translateY);
+      if (x != 0 || y != 0) {
+        description.appendLazily(() -> " at (" + x + "," + y + ")");
+      }
 
-    if (scaleX != 1 && scaleY != 1) {
-      appendDescription(" scaled by (" + scaleX + "," + scaleY + ")");
+      float scaleX = this.scaleX;
+      float scaleY = this.scaleY;
+      if (scaleX != 1 && scaleY != 1) {
+        description.appendLazily(() -> " scaled by (" + scaleX + "," + scaleY + ")");
+      }
     }
 
     if (bitmap != null && targetBitmap != null) {
@@ -160,52 +206,75 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
 
   @Implementation
   protected void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
-    describeBitmap(bitmap, paint);
-
-    StringBuilder descriptionBuilder = new StringBuilder();
-    if (dst != null) {
-      descriptionBuilder
-          .append(" at (")
-          .append(dst.left)
-          .append(",")
-          .append(dst.top)
-          .append(") with height=")
-          .append(dst.height())
-          .append(" and width=")
-          .append(dst.width());
+    if (!recordDrawHistory) {
+      return;
     }
+    describeBitmap(bitmap, paint);
 
-    if (src != null) {
-      descriptionBuilder.append(" taken from ").append(src);
+    if (dst != null || src != null) {
+      Rect dstCopy = dst == null ? null : new Rect(dst);
+      Rect srcCopy = src == null ? null : new Rect(src);
+      getDescriptionLog()
+          .appendLazily(
+              () -> {
+                StringBuilder descriptionBuilder = new StringBuilder();
+                if (dstCopy != null) {
+                  descriptionBuilder
+                      .append(" at (")
+                      .append(dstCopy.left)
+                      .append(",")
+                      .append(dstCopy.top)
+                      .append(") with height=")
+                      .append(dstCopy.height())
+                      .append(" and width=")
+                      .append(dstCopy.width());
+                }
+                if (srcCopy != null) {
+                  descriptionBuilder.append(" taken from ").append(srcCopy);
+                }
+                return descriptionBuilder.toString();
+              });
     }
-    appendDescription(descriptionBuilder.toString());
   }
 
   @Implementation
   protected void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
-    describeBitmap(bitmap, paint);
-
-    StringBuilder descriptionBuilder = new StringBuilder();
-    if (dst != null) {
-      descriptionBuilder
-          .append(" at (")
-          .append(dst.left)
-          .append(",")
-          .append(dst.top)
-          .append(") with height=")
-          .append(dst.height())
-          .append(" and width=")
-          .append(dst.width());
+    if (!recordDrawHistory) {
+      return;
     }
+    describeBitmap(bitmap, paint);
 
-    if (src != null) {
-      descriptionBuilder.append(" taken from ").append(src);
+    if (dst != null || src != null) {
+      RectF dstCopy = dst == null ? null : new RectF(dst);
+      Rect srcCopy = src == null ? null : new Rect(src);
+      getDescriptionLog()
+          .appendLazily(
+              () -> {
+                StringBuilder descriptionBuilder = new StringBuilder();
+                if (dstCopy != null) {
+                  descriptionBuilder
+                      .append(" at (")
+                      .append(dstCopy.left)
+                      .append(",")
+                      .append(dstCopy.top)
+                      .append(") with height=")
+                      .append(dstCopy.height())
+                      .append(" and width=")
+                      .append(dstCopy.width());
+                }
+                if (srcCopy != null) {
+                  descriptionBuilder.append(" taken from ").append(srcCopy);
+                }
+                return descriptionBuilder.toString();
+              });
     }
-    appendDescription(descriptionBuilder.toString());
   }
 
   @Implementation
   protected void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     describeBitmap(bitmap, paint);
 
     ShadowMatrix shadowMatrix = Shadow.extract(matrix);
@@ -214,27 +283,39 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
 
   @Implementation
   protected void drawPath(Path path, Paint paint) {
-    pathPaintEvents.add(new PathPaintHistoryEvent(new Path(path), new Paint(paint)));
+    if (!recordDrawHistory) {
+      return;
+    }
+    Path drawnPath = new Path(path);
+    pathPaintEvents.add(new PathPaintHistoryEvent(drawnPath, new Paint(paint)));
 
     separateLines();
-    ShadowPath shadowPath = Shadow.extract(path);
-    appendDescription("Path " + shadowPath.getPoints().toString());
+    ShadowPath shadowPath = Shadow.extract(drawnPath);
+    getDescriptionLog().appendLazily(() -> "Path " + shadowPath.getPoints());
   }
 
   @Implementation
   protected void drawCircle(float cx, float cy, float radius, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     circlePaintEvents.add(new CirclePaintHistoryEvent(cx, cy, radius, paint));
   }
 
   @Implementation
   protected void drawArc(
       RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     arcPaintEvents.add(new ArcPaintHistoryEvent(oval, startAngle, sweepAngle, useCenter, paint));
   }
 
   @Implementation
   protected void drawRect(float left, float top, float right, float bottom, Paint paint) {
-    rectPaintEvents.add(new RectPaintHistoryEvent(left, top, right, bottom, paint));
+    if (recordDrawHistory) {
+      rectPaintEvents.add(new RectPaintHistoryEvent(left, top, right, bottom, paint));
+    }
 
     if (targetBitmap != null) {
       ShadowLegacyBitmap shadowTargetBitmap = Shadow.extract(targetBitmap);
@@ -244,7 +325,9 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
 
   @Implementation
   protected void drawRect(Rect r, Paint paint) {
-    rectPaintEvents.add(new RectPaintHistoryEvent(r.left, r.top, r.right, r.bottom, paint));
+    if (recordDrawHistory) {
+      rectPaintEvents.add(new RectPaintHistoryEvent(r.left, r.top, r.right, r.bottom, paint));
+    }
 
     if (targetBitmap != null) {
       ShadowLegacyBitmap shadowTargetBitmap = Shadow.extract(targetBitmap);
@@ -254,6 +337,9 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
 
   @Implementation
   protected void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     roundRectPaintEvents.add(
         new RoundRectPaintHistoryEvent(
             rect.left, rect.top, rect.right, rect.bottom, rx, ry, paint));
@@ -261,19 +347,25 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
 
   @Implementation
   protected void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     linePaintEvents.add(new LinePaintHistoryEvent(startX, startY, stopX, stopY, paint));
   }
 
   @Implementation
   protected void drawOval(RectF oval, Paint paint) {
+    if (!recordDrawHistory) {
+      return;
+    }
     ovalPaintEvents.add(new OvalPaintHistoryEvent(oval, paint));
   }
 
   private void describeBitmap(Bitmap bitmap, Paint paint) {
     separateLines();
 
-    ShadowBitmap shadowBitmap = Shadow.extract(bitmap);
-    appendDescription(shadowBitmap.getDescription());
+    ShadowLegacyBitmap shadowBitmap = Shadow.extract(bitmap);
+    getDescriptionLog().append(shadowBitmap.getDescriptionLog().snapshot());
 
     if (paint != null) {
       ColorFilter colorFilter = paint.getColorFilter();
@@ -284,8 +376,9 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
   }
 
   private void separateLines() {
-    if (!getDescription().isEmpty()) {
-      appendDescription("\n");
+    DescriptionLog description = getDescriptionLog();
+    if (!description.isEmpty()) {
+      description.append("\n");
     }
   }
 
@@ -557,6 +650,7 @@ public class ShadowLegacyCanvas extends ShadowCanvas {
   @Resetter
   public static void reset() {
     nativeObjectRegistry.clear();
+    recordDrawHistory = recordDrawHistoryByDefault();
   }
 
   private static class NativeCanvas {
@@ -1,5 +1,6 @@
 package org.robolectric.shadows;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static org.robolectric.util.reflector.Reflector.reflector;
 
@@ -9,16 +10,21 @@ import android.util.Log.TerribleFailureHandler;
 import com.google.common.base.Ascii;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -36,9 +42,28 @@ public class ShadowLog {
 
   private static final int EXTRA_LOG_LENGTH = "l/: \n".length();
 
-  private static final Map<String, Queue<LogItem>> logsByTag =
+  /**
+   * Captured logs, per tag. The global order of log items is recovered from their sequence number
+   * in {@link #getLogs()}, so there is no need to keep a second list of all logs.
+   */
+  private static final Map<String, LogBuffer> logsByTag =
       Collections.synchronizedMap(new HashMap<>());
-  private static final Queue<LogItem> logs = new ConcurrentLinkedQueue<>();
+
+  private static final AtomicLong nextLogSequence = new AtomicLong();
+
+  /** The maximum number of log items retained for each tag. */
+  private static volatile int maxLogsPerTag = Integer.MAX_VALUE;
+
+  /** Where log items that are evicted from a full tag buffer are written, if non-null. */
+  private static volatile PrintStream overflowStream;
+
+  /** Restored by {@link #reset()}, and set from system properties by {@link #setupLogging()}. */
+  private static int defaultMaxLogsPerTag = Integer.MAX_VALUE;
+
+  private static PrintStream defaultOverflowStream;
+
+  /** Writes to {@link #stream} on a background thread, if non-null. */
+  private static volatile AsyncLogWriter asyncLogWriter;
 
   private static final AtomicBoolean logCaptureEnabled = new AtomicBoolean(true);
 
@@ -176,27 +201,41 @@ public class ShadowLog {
     if (stream != null) {
       Integer minLevel = tagToLevel.get(tag);
       if (minLevel == null || level >= minLevel) {
-        logToStream(stream, timeString, level, tag, msg, throwable);
+        AsyncLogWriter writer = asyncLogWriter;
+        if (writer != null) {
+          writer.write(stream, timeString, level, tag, msg, throwable);
+        } else {
+          logToStream(stream, timeString, level, tag, msg, throwable);
+        }
       }
     }
     if (!logCaptureEnabled.get()) {
       return 0;
     }
 
-    LogItem item = new LogItem(timeString, level, tag, msg, throwable);
-    Queue<LogItem> itemList;
+    LogBuffer itemList;
 
     synchronized (logsByTag) {
-      if (!logsByTag.containsKey(tag)) {
-        itemList = new ConcurrentLinkedQueue<>();
+      itemList = logsByTag.get(tag);
+      if (itemList == null) {
+        itemList = new LogBuffer();
         logsByTag.put(tag, itemList);
-      } else {
-        itemList = logsByTag.get(tag);
       }
     }
 
-    itemList.add(item);
-    logs.add(item);
+    List<LogItem> evicted = itemList.add(timeString, level, tag, msg, throwable, maxLogsPerTag);
+    PrintStream overflow = overflowStream;
+    if (overflow != null) {
+      for (LogItem evictedItem : evicted) {
+        logToStream(
+            overflow,
+            evictedItem.timeString,
+            evictedItem.type,
+            evictedItem.tag,
+            evictedItem.msg,
+            evictedItem.throwable);
+      }
+    }
 
     return 0;
   }
@@ -230,17 +269,43 @@ public class ShadowLog {
 
   private static void logToStream(
       PrintStream ps, String timeString, int level, String tag, String msg, Throwable throwable) {
+    ps.println(formatLogLine(timeString, level, tag, msg));
+    if (throwable != null) {
+      throwable.printStackTrace(ps);
+    }
+  }
 
-    String outputString;
+  static String formatLogLine(String timeString, int level, String tag, String msg) {
     if (timeString != null && !timeString.isEmpty()) {
-      outputString = timeString + " " + levelToChar(level) + "/" + tag + ": " + msg;
+      return timeString + " " + levelToChar(level) + "/" + tag + ": " + msg;
     } else {
-      outputString = levelToChar(level) + "/" + tag + ": " + msg;
+      return levelToChar(level) + "/" + tag + ": " + msg;
     }
+  }
 
-    ps.println(outputString);
-    if (throwable != null) {
-      throwable.printStackTrace(ps);
+  /**
+   * Sets whether logs are written to {@link #stream} asynchronously. When enabled, log lines are
+   * formatted and written in batches on a background thread, so that logging does not block the
+   * calling thread on console or file I/O. It can also be enabled with the {@code
+   * robolectric.logging.async} system property.
+   *
+   * <p>Robolectric calls {@link #flushStream()} at the end of each test, including failed tests.
+   */
+  public static synchronized void setAsyncStreamEnabled(boolean isEnabled) {
+    if (isEnabled && asyncLogWriter == null) {
+      asyncLogWriter = new AsyncLogWriter();
+    } else if (!isEnabled && asyncLogWriter != null) {
+      AsyncLogWriter writer = asyncLogWriter;
+      asyncLogWriter = null;
+      writer.close();
+    }
+  }
+
+  /** Blocks until all logs written asynchronously to {@link #stream} have been written. */
+  public static void flushStream() {
+    AsyncLogWriter writer = asyncLogWriter;
+    if (writer != null) {
+      writer.flush();
     }
   }
 
@@ -259,11 +324,36 @@ public class ShadowLog {
   public static void setCaptureLogsEnabled(boolean isEnabled) {
     boolean previous = logCaptureEnabled.getAndSet(isEnabled);
     if (previous && !isEnabled) {
-      logs.clear();
       logsByTag.clear();
     }
   }
 
+  /**
+   * Limits the number of log items that are retained in memory for each tag. When a tag exceeds
+   * this limit its oldest log items are dropped, or written to the stream set with {@link
+   * #setOverflowStream(PrintStream)}.
+   *
+   * <p>This bounds the memory used by chatty libraries in long-running tests. {@link #getLogs()}
+   * and {@link #getLogsForTag(String)} only return the retained log items. The default is to retain
+   * all logs; it can also be set with the {@code robolectric.logging.maxLogsPerTag} system
+   * property.
+   *
+   * @param maxLogs the maximum number of log items retained per tag, must be positive
+   */
+  public static void setMaxLogsPerTag(int maxLogs) {
+    checkArgument(maxLogs > 0, "maxLogsPerTag must be positive");
+    maxLogsPerTag = maxLogs;
+  }
+
+  /**
+   * Sets the stream that log items evicted because of {@link #setMaxLogsPerTag(int)} are written
+   * to, or null to discard them. It can also be set with the {@code robolectric.logging.overflow}
+   * system property, which accepts the same values as {@code robolectric.logging}.
+   */
+  public static void setOverflowStream(PrintStream overflow) {
+    overflowStream = overflow;
+  }
+
   /**
    * Returns ordered list of all log entries.
    *
@@ -273,7 +363,14 @@ public class ShadowLog {
     checkState(
         logCaptureEnabled.get(),
         "Log capturing is disabled. Use ShadowLog.setCaptureLogsEnabled(true) to enable.");
-    return ImmutableList.copyOf(logs);
+    List<Iterator<LogItem>> logsPerTag = new ArrayList<>();
+    synchronized (logsByTag) {
+      for (LogBuffer buffer : logsByTag.values()) {
+        logsPerTag.add(buffer.snapshot().iterator());
+      }
+    }
+    return ImmutableList.copyOf(
+        Iterators.mergeSorted(logsPerTag, Comparator.comparingLong(item -> item.sequence)));
   }
 
   /**
@@ -286,8 +383,8 @@ public class ShadowLog {
     checkState(
         logCaptureEnabled.get(),
         "Log capturing is disabled. Use ShadowLog.setCaptureLogsEnabled(true) to enable.");
-    Queue<LogItem> logs = logsByTag.get(tag);
-    return logs == null ? ImmutableList.of() : ImmutableList.copyOf(logs);
+    LogBuffer logs = logsByTag.get(tag);
+    return logs == null ? ImmutableList.of() : logs.snapshot();
   }
 
   /** Clear all accumulated logs. */
@@ -297,32 +394,81 @@ public class ShadowLog {
 
   @Resetter
   public static void reset() {
-    logs.clear();
     logsByTag.clear();
     tagToLevel.clear();
     wtfIsFatal = false;
     timeSupplier = null;
+    maxLogsPerTag = defaultMaxLogsPerTag;
+    overflowStream = defaultOverflowStream;
   }
 
-  @SuppressWarnings("CatchAndPrintStackTrace")
   public static void setupLogging() {
     String logging = System.getProperty("robolectric.logging");
     if (logging != null && stream == null) {
-      PrintStream stream = null;
-      if (Ascii.equalsIgnoreCase("stdout", logging)) {
-        stream = System.out;
-      } else if (Ascii.equalsIgnoreCase("stderr", logging)) {
-        stream = System.err;
-      } else {
-        try {
-          final PrintStream file = new PrintStream(new FileOutputStream(logging), true);
-          stream = file;
-          Runtime.getRuntime().addShutdownHook(new Thread(file::close));
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+      ShadowLog.stream = openLogStream(logging);
+    }
+    String maxLogs = System.getProperty("robolectric.logging.maxLogsPerTag");
+    if (maxLogs != null) {
+      setMaxLogsPerTag(Integer.parseInt(maxLogs));
+      defaultMaxLogsPerTag = maxLogsPerTag;
+    }
+    String overflow = System.getProperty("robolectric.logging.overflow");
+    if (overflow != null && defaultOverflowStream == null) {
+      defaultOverflowStream = openLogStream(overflow);
+      if (overflowStream == null) {
+        overflowStream = defaultOverflowStream;
       }
-      ShadowLog.stream = stream;
+    }
+    if (Boolean.getBoolean("robolectric.logging.async")) {
+      setAsyncStreamEnabled(true);
+    }
+  }
+
+  @SuppressWarnings("CatchAndPrintStackTrace")
+  private static PrintStream openLogStream(String logging) {
+    PrintStream stream = null;
+    if (Ascii.equalsIgnoreCase("stdout", logging)) {
+      stream = System.out;
+    } else if (Ascii.equalsIgnoreCase("stderr", logging)) {
+      stream = System.err;
+    } else {
+      try {
+        final PrintStream file = new PrintStream(new FileOutputStream(logging), true);
+        stream = file;
+        Runtime.getRuntime().addShutdownHook(new Thread(file::close));
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+    return stream;
+  }
+
+  /** A bounded ring buffer of the log items for a single tag. */
+  private static final class LogBuffer {
+    private final ArrayDeque<LogItem> items = new ArrayDeque<>();
+
+    /**
+     * Adds a log item, and returns the oldest items that were evicted to stay within maxSize.
+     *
+     * <p>The item's sequence number is taken while holding this buffer's lock, so the items of each
+     * buffer are always sorted by sequence number, as {@link #getLogs()} expects.
+     */
+    synchronized List<LogItem> add(
+        String timeString, int level, String tag, String msg, Throwable throwable, int maxSize) {
+      items.add(
+          new LogItem(nextLogSequence.getAndIncrement(), timeString, level, tag, msg, throwable));
+      if (items.size() <= maxSize) {
+        return ImmutableList.of();
+      }
+      List<LogItem> evicted = new ArrayList<>();
+      while (items.size() > maxSize) {
+        evicted.add(items.poll());
+      }
+      return evicted;
+    }
+
+    synchronized ImmutableList<LogItem> snapshot() {
+      return ImmutableList.copyOf(items);
     }
   }
 
@@ -334,15 +480,20 @@ public class ShadowLog {
     public final String msg;
     public final Throwable throwable;
 
+    /** The order in which this item was logged. Not part of the item's identity. */
+    private final long sequence;
+
     public LogItem(int type, String tag, String msg, Throwable throwable) {
-      this.timeString = null;
-      this.type = type;
-      this.tag = tag;
-      this.msg = msg;
-      this.throwable = throwable;
+      this(null, type, tag, msg, throwable);
     }
 
     public LogItem(String timeString, int type, String tag, String msg, Throwable throwable) {
+      this(-1, timeString, type, tag, msg, throwable);
+    }
+
+    private LogItem(
+        long sequence, String timeString, int type, String tag, String msg, Throwable throwable) {
+      this.sequence = sequence;
       this.timeString = timeString;
       this.type = type;
       this.tag = tag;
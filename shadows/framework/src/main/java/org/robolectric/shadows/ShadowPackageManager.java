@@ -148,6 +148,12 @@ public class ShadowPackageManager {
   static final SortedMap<ComponentName, List<IntentFilter>> providerFilters = new TreeMap<>();
   static final SortedMap<ComponentName, List<IntentFilter>> receiverFilters = new TreeMap<>();
 
+  // Indexes of the filters above, used to resolve implicit intents.
+  static final IntentFilterIndex activityFilterIndex = new IntentFilterIndex(activityFilters);
+  static final IntentFilterIndex serviceFilterIndex = new IntentFilterIndex(serviceFilters);
+  static final IntentFilterIndex providerFilterIndex = new IntentFilterIndex(providerFilters);
+  static final IntentFilterIndex receiverFilterIndex = new IntentFilterIndex(receiverFilters);
+
   private static final Map<String, PackageInfo> packageArchiveInfo = new HashMap<>();
   static final Map<String, PackageStats> packageStatsMap = new HashMap<>();
   static final Map<String, String> packageInstallerMap = new HashMap<>();
@@ -560,6 +566,7 @@ public class ShadowPackageManager {
       BiConsumer<PackageInfo, C[]> componentsSetter) {
     synchronized (lock) {
       filtersMap.remove(componentName);
+      intentFilterIndexFor(filtersMap).reindex(componentName);
       String packageName = componentName.getPackageName();
       PackageInfo packageInfo = packageInfos.get(packageName);
       if (packageInfo == null) {
@@ -1342,6 +1349,10 @@ public class ShadowPackageManager {
       mapForPackage(serviceFilters, packageName).clear();
       mapForPackage(providerFilters, packageName).clear();
       mapForPackage(receiverFilters, packageName).clear();
+      activityFilterIndex.reindexPackage(packageName);
+      serviceFilterIndex.reindexPackage(packageName);
+      providerFilterIndex.reindexPackage(packageName);
+      receiverFilterIndex.reindexPackage(packageName);
       moduleInfos.remove(packageName);
     }
   }
@@ -1507,6 +1518,7 @@ public class ShadowPackageManager {
       for (IntentInfo intentInfo : component.intents) {
         registeredFilters.add(new IntentFilter(intentInfo));
       }
+      intentFilterIndexFor(componentMap).reindex(componentName);
     }
   }
 
@@ -1660,7 +1672,8 @@ public class ShadowPackageManager {
   }
 
   /**
-   * Add intent filter for given activity.
+   * Add intent filter for given activity. The filter is copied, so changing it afterwards has no
+   * effect.
    *
    * @throws IllegalArgumentException if component with given name doesn't exist.
    */
@@ -1669,7 +1682,8 @@ public class ShadowPackageManager {
   }
 
   /**
-   * Add intent filter for given service.
+   * Add intent filter for given service. The filter is copied, so changing it afterwards has no
+   * effect.
    *
    * @throws IllegalArgumentException if component with given name doesn't exist.
    */
@@ -1678,7 +1692,8 @@ public class ShadowPackageManager {
   }
 
   /**
-   * Add intent filter for given receiver.
+   * Add intent filter for given receiver. The filter is copied, so changing it afterwards has no
+   * effect.
    *
    * @throws IllegalArgumentException if component with given name doesn't exist.
    */
@@ -1687,7 +1702,8 @@ public class ShadowPackageManager {
   }
 
   /**
-   * Add intent filter for given provider.
+   * Add intent filter for given provider. The filter is copied, so changing it afterwards has no
+   * effect.
    *
    * @throws IllegalArgumentException if component with given name doesn't exist.
    */
@@ -1738,29 +1754,42 @@ public class ShadowPackageManager {
     // Existing components should have an entry in respective filterMap.
     // It is OK to search over all filter maps, as it is impossible to have the same component name
     // being of two comopnent types (like activity and service at the same time).
-    List<IntentFilter> filters = filterMap.get(componentName);
-    if (filters != null) {
-      filters.add(filter);
-      return;
+    synchronized (lock) {
+      List<IntentFilter> filters = filterMap.get(componentName);
+      if (filters != null) {
+        // Store a copy, so that the filter can't change without the index being updated.
+        filters.add(new IntentFilter(filter));
+        intentFilterIndexFor(filterMap).reindex(componentName);
+        return;
+      }
     }
     throw new IllegalArgumentException(componentName + " doesn't exist");
   }
 
   private void clearIntentFilterForComponent(
       ComponentName componentName, Map<ComponentName, List<IntentFilter>> filterMap) {
-    List<IntentFilter> filters = filterMap.get(componentName);
-    if (filters != null) {
-      filters.clear();
-      return;
+    synchronized (lock) {
+      List<IntentFilter> filters = filterMap.get(componentName);
+      if (filters != null) {
+        filters.clear();
+        intentFilterIndexFor(filterMap).reindex(componentName);
+        return;
+      }
     }
     throw new IllegalArgumentException(componentName + " doesn't exist");
   }
 
   private List<IntentFilter> getIntentFiltersForComponent(
       ComponentName componentName, Map<ComponentName, List<IntentFilter>> filterMap) {
-    List<IntentFilter> filters = filterMap.get(componentName);
-    if (filters != null) {
-      return new ArrayList<>(filters);
+    synchronized (lock) {
+      List<IntentFilter> filters = filterMap.get(componentName);
+      if (filters != null) {
+        List<IntentFilter> copies = new ArrayList<>(filters.size());
+        for (IntentFilter filter : filters) {
+          copies.add(new IntentFilter(filter));
+        }
+        return copies;
+      }
     }
     throw new IllegalArgumentException(componentName + " doesn't exist");
   }
@@ -1825,6 +1854,19 @@ public class ShadowPackageManager {
     filters.add(filter);
   }
 
+  static IntentFilterIndex intentFilterIndexFor(Map<ComponentName, List<IntentFilter>> filterMap) {
+    if (filterMap == activityFilters) {
+      return activityFilterIndex;
+    } else if (filterMap == serviceFilters) {
+      return serviceFilterIndex;
+    } else if (filterMap == providerFilters) {
+      return providerFilterIndex;
+    } else if (filterMap == receiverFilters) {
+      return receiverFilterIndex;
+    }
+    throw new IllegalArgumentException("Not a component filter map");
+  }
+
   protected static <V> SortedMap<ComponentName, V> mapForPackage(
       SortedMap<ComponentName, V> input, @Nullable String packageName) {
     if (packageName == null) {
@@ -1959,6 +2001,10 @@ public class ShadowPackageManager {
       serviceFilters.clear();
       providerFilters.clear();
       receiverFilters.clear();
+      activityFilterIndex.clear();
+      serviceFilterIndex.clear();
+      providerFilterIndex.clear();
+      receiverFilterIndex.clear();
       packageSettings.clear();
       safeMode = false;
       whitelisted = false;
@@ -635,5 +635,9 @@ public final class ShadowPausedLooper extends ShadowLooper {
 
     @Accessor("mThread")
     void setThread(Thread thread);
+
+    @Static
+    @Accessor("sThreadLocal")
+    ThreadLocal<Looper> getThreadLocal();
   }
 }
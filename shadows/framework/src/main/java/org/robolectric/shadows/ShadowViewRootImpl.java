@@ -48,6 +48,8 @@ public class ShadowViewRootImpl {
   }
 
   private static final List<OnDrawListener> globalDrawListeners = new CopyOnWriteArrayList<>();
+  private static final List<DrawDamageListener> globalDrawDamageListeners =
+      new CopyOnWriteArrayList<>();
 
   @RealObject protected ViewRootImpl realObject;
 
@@ -77,6 +79,7 @@ public class ShadowViewRootImpl {
       boolean fullRedrawNeeded,
       @ClassName("android.window.SurfaceSyncGroup") Object activeSyncGroupObj,
       boolean syncBuffer) {
+    Rect damage = getDrawDamage(fullRedrawNeeded);
     boolean result =
         PerfStatsCollector.getInstance()
             .measure(
@@ -85,9 +88,7 @@ public class ShadowViewRootImpl {
                     reflector(ViewRootImplVICReflector.class, realObject)
                         .draw(fullRedrawNeeded, (SurfaceSyncGroup) activeSyncGroupObj, syncBuffer));
     if (result) {
-      for (OnDrawListener listener : globalDrawListeners) {
-        listener.onDraw();
-      }
+      dispatchGlobalDraw(damage);
     } else if (!globalDrawListeners.isEmpty() && !realObject.isHardwareEnabled()) {
       Log.w(
           "ShadowViewRootImpl",
@@ -101,16 +102,45 @@ public class ShadowViewRootImpl {
 
   @Implementation(minSdk = TIRAMISU, maxSdk = UPSIDE_DOWN_CAKE)
   protected boolean draw(boolean fullRedrawNeeded, boolean forceDraw) {
+    Rect damage = getDrawDamage(fullRedrawNeeded);
     boolean result =
         reflector(ViewRootImplReflector.class, realObject).draw(fullRedrawNeeded, forceDraw);
     if (result) {
-      for (OnDrawListener listener : globalDrawListeners) {
-        listener.onDraw();
-      }
+      dispatchGlobalDraw(damage);
     }
     return result;
   }
 
+  /**
+   * Returns the region of the window that is about to be drawn, in window coordinates, or null if
+   * nobody is interested in it.
+   */
+  private Rect getDrawDamage(boolean fullRedrawNeeded) {
+    View view = realObject.getView();
+    if (globalDrawDamageListeners.isEmpty() || view == null) {
+      return null;
+    }
+    Rect windowBounds = new Rect(0, 0, view.getWidth(), view.getHeight());
+    Rect damage = new Rect(reflector(ViewRootImplReflector.class, realObject).getDirty());
+    // With hardware rendering, draws may be triggered by animations without any dirty region, so
+    // consider the whole window damaged unless only part of it is known to be dirty.
+    if (fullRedrawNeeded || damage.isEmpty() || !damage.intersect(windowBounds)) {
+      return windowBounds;
+    }
+    return damage;
+  }
+
+  private void dispatchGlobalDraw(Rect damage) {
+    if (damage != null) {
+      for (DrawDamageListener listener : globalDrawDamageListeners) {
+        listener.onDrawDamage(realObject.getView(), new Rect(damage));
+      }
+    }
+    for (OnDrawListener listener : globalDrawListeners) {
+      listener.onDraw();
+    }
+  }
+
   /**
    * Internal use only. This API may be removed at any time.
    *
@@ -120,6 +150,29 @@ public class ShadowViewRootImpl {
     globalDrawListeners.add(listener);
   }
 
+  /**
+   * Internal use only. This API may be removed at any time.
+   *
+   * <p>Register a listener for the regions drawn on any ViewRootImpl. It is called before the
+   * listeners registered with {@link #internalRegisterGlobalOnDrawListener}.
+   */
+  public static void internalRegisterGlobalDrawDamageListener(DrawDamageListener listener) {
+    globalDrawDamageListeners.add(listener);
+  }
+
+  /**
+   * Internal use only. This API may be removed at any time.
+   *
+   * <p>Receives the regions drawn on any ViewRootImpl.
+   */
+  public interface DrawDamageListener {
+    /**
+     * Called after the window of {@code rootView} was drawn, with the region that was redrawn in
+     * window coordinates.
+     */
+    void onDrawDamage(View rootView, Rect damage);
+  }
+
   @Resetter
   public static void reset() {
     ViewRootImplReflector viewRootImplStatic = reflector(ViewRootImplReflector.class);
@@ -127,6 +180,7 @@ public class ShadowViewRootImpl {
     viewRootImplStatic.setFirstDrawHandlers(new ArrayList<>());
     viewRootImplStatic.setFirstDrawComplete(false);
     viewRootImplStatic.setConfigCallbacks(new ArrayList<>());
+    HardwareRenderingScreenshot.reset();
   }
 
   public void callWindowFocusChanged(boolean hasFocus) {
@@ -153,6 +207,9 @@ public class ShadowViewRootImpl {
     @Accessor("mWindow")
     IWindow getWindow();
 
+    @Accessor("mDirty")
+    Rect getDirty();
+
     @Direct
     void setView(View view, WindowManager.LayoutParams attrs, View panelParentView);
 
@@ -10,6 +10,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
+import javax.annotation.Nullable;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 import org.robolectric.annotation.ConscryptMode;
@@ -29,9 +30,26 @@ public class AppLoader implements Runnable {
 
   private final Path apkPath;
 
+  @Nullable private final String instanceName;
+
+  private final String qualifiers;
+
   public AppLoader(AndroidSandbox sandbox, Path apkPath) {
+    this(sandbox, apkPath, null, "");
+  }
+
+  /**
+   * Creates a loader for one of several simulator instances in the same JVM.
+   *
+   * @param instanceName the name of the instance, or null if it is the only one
+   * @param qualifiers the device configuration of the instance, or "" for the default one
+   */
+  public AppLoader(
+      AndroidSandbox sandbox, Path apkPath, @Nullable String instanceName, String qualifiers) {
     this.sandbox = sandbox;
     this.apkPath = apkPath;
+    this.instanceName = instanceName;
+    this.qualifiers = qualifiers;
   }
 
   @SuppressWarnings("unchecked")
@@ -48,7 +66,11 @@ public class AppLoader implements Runnable {
         break;
       }
     }
-    return bestConfigConfigurer.defaultConfig();
+    Config config = bestConfigConfigurer.defaultConfig();
+    if (qualifiers.isEmpty()) {
+      return config;
+    }
+    return new Config.Builder(config).setQualifiers(qualifiers).build();
   }
 
   @Override
@@ -91,7 +113,7 @@ public class AppLoader implements Runnable {
     try {
       Class<? extends Activity> activityClass =
           Class.forName(activityInfo.name).asSubclass(Activity.class);
-      new Simulator(activityClass).start();
+      new Simulator(activityClass, instanceName).start();
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -0,0 +1,72 @@
+package org.robolectric.simulator;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.robolectric.util.PerfStatsCollector;
+
+/**
+ * A screen capture that is shared by all {@link FrameListener}s, together with the region of the
+ * screen that changed since the previous frame.
+ *
+ * <p>Frames are reference counted: each listener that receives a frame owns one reference, and must
+ * {@link #release()} it once it is done with the bitmap. The bitmap is recycled when the last
+ * reference is released, so it must not be modified.
+ */
+public final class Frame {
+  private final Bitmap bitmap;
+  private final Rect dirtyRect;
+  private final AtomicInteger references = new AtomicInteger(1);
+
+  Frame(Bitmap bitmap, Rect dirtyRect) {
+    this.bitmap = bitmap;
+    this.dirtyRect = new Rect(dirtyRect);
+  }
+
+  /** Returns the captured screen. It must not be modified, and must not be used once released. */
+  public Bitmap getBitmap() {
+    checkState(references.get() > 0, "frame was released");
+    return bitmap;
+  }
+
+  /**
+   * Returns the region of the screen that changed since the previous frame. Pixels outside this
+   * region are the same as in the previous frame.
+   */
+  public Rect getDirtyRect() {
+    return new Rect(dirtyRect);
+  }
+
+  /** Adds a reference to this frame, which must be released separately. */
+  Frame retain() {
+    checkState(references.getAndIncrement() > 0, "frame was released");
+    return this;
+  }
+
+  /** Releases a reference to this frame, and recycles the bitmap if it was the last reference. */
+  public void release() {
+    int remaining = references.decrementAndGet();
+    checkState(remaining >= 0, "frame was released too often");
+    if (remaining == 0) {
+      bitmap.recycle();
+    }
+  }
+
+  /**
+   * Releases a reference to this frame, and returns a bitmap that is owned by the caller: the
+   * bitmap of this frame if this was the last reference, or a copy otherwise.
+   */
+  public Bitmap detachBitmap() {
+    // Only the last reference can take over the bitmap, as nobody else can use it anymore.
+    if (references.compareAndSet(1, 0)) {
+      return bitmap;
+    }
+    Bitmap copy =
+        PerfStatsCollector.getInstance()
+            .measure("Frame-copyBitmap", () -> bitmap.copy(bitmap.getConfig(), false));
+    release();
+    return copy;
+  }
+}
@@ -20,4 +20,19 @@ public interface FrameListener {
    * they should do processing work synchronously or asynchronously
    */
   void onFrame(Bitmap bitmap);
+
+  /**
+   * Receives one frame, which may be shared with other listeners.
+   *
+   * <p>Implementations are responsible for {@link Frame#release() releasing} the provided frame. By
+   * default, this passes a bitmap owned by this listener to {@link #onFrame(Bitmap)}, which
+   * requires a copy unless this is the last listener to release the frame. Implementations that
+   * only read the bitmap should override this method instead, and may only process the {@link
+   * Frame#getDirtyRect() dirty region} of the frame.
+   *
+   * <p>This is called from main Looper thread.
+   */
+  default void onFrame(Frame frame) {
+    onFrame(frame.detachBitmap());
+  }
 }
@@ -0,0 +1,105 @@
+package org.robolectric.simulator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import org.robolectric.internal.bytecode.ResourceProvider;
+import org.robolectric.internal.bytecode.UrlResourceProvider;
+
+/**
+ * A {@link ResourceProvider} that reads entries of jars through their shared {@link JarIndex}, and
+ * falls back to a class loader for jars that can't be indexed.
+ *
+ * <p>Jars are searched in order, like a {@link java.net.URLClassLoader} would.
+ */
+final class IndexedJarResourceProvider implements ResourceProvider {
+  private final List<Source> sources = new ArrayList<>();
+  private final UrlResourceProvider urlResourceProvider;
+
+  IndexedJarResourceProvider(List<Path> jarPaths) {
+    URL[] urls = new URL[jarPaths.size()];
+    for (int i = 0; i < urls.length; i++) {
+      Path jarPath = jarPaths.get(i);
+      urls[i] = toUrl(jarPath);
+      Optional<JarIndex> index = JarIndex.forJar(jarPath);
+      sources.add(
+          index.isPresent()
+              ? new Source(index.get(), null)
+              : new Source(null, new UrlResourceProvider(urls[i])));
+    }
+    this.urlResourceProvider = new UrlResourceProvider(urls);
+  }
+
+  @Override
+  public URL getResource(String resName) {
+    // URLs are only needed for resources that aren't read through this provider, so they are not
+    // worth indexing.
+    return urlResourceProvider.getResource(resName);
+  }
+
+  /** Returns the URLs of all the resources with the given name, in jar order. */
+  Enumeration<URL> findResources(String resName) throws IOException {
+    return urlResourceProvider.findResources(resName);
+  }
+
+  @Override
+  public InputStream getResourceAsStream(String resName) {
+    for (Source source : sources) {
+      if (source.index != null) {
+        byte[] bytes;
+        try {
+          bytes = source.index.read(resName);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        if (bytes != null) {
+          return new ByteArrayInputStream(bytes);
+        }
+      } else {
+        InputStream stream = source.fallback.getResourceAsStream(resName);
+        if (stream != null) {
+          return stream;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    // Indexes are shared, so only the class loaders are closed.
+    for (Source source : sources) {
+      if (source.fallback != null) {
+        source.fallback.close();
+      }
+    }
+    urlResourceProvider.close();
+  }
+
+  private static URL toUrl(Path path) {
+    try {
+      return path.toUri().toURL();
+    } catch (MalformedURLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** A jar, read either through its index or through a class loader. */
+  private static final class Source {
+    private final JarIndex index;
+    private final UrlResourceProvider fallback;
+
+    private Source(JarIndex index, UrlResourceProvider fallback) {
+      this.index = index;
+      this.fallback = fallback;
+    }
+  }
+}
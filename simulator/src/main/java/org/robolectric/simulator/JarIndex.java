@@ -0,0 +1,288 @@
+package org.robolectric.simulator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import javax.annotation.Nullable;
+import org.robolectric.util.Logger;
+import org.robolectric.util.PerfStatsCollector;
+
+/**
+ * A memory-mapped view of a jar, indexed by entry name, so that reading an entry is a hash lookup
+ * plus a copy or inflation of its bytes.
+ *
+ * <p>Indexes are built once per jar and shared by all simulator class loaders in the JVM. A jar
+ * that is rewritten, i.e. whose size or modification time changed, gets a new index. Jars that
+ * can't be indexed, e.g. because they are larger than 2GB or use unsupported compression, have no
+ * index, and must be read through a regular class loader instead.
+ */
+final class JarIndex {
+  private static final Map<Key, Optional<JarIndex>> indexes = new ConcurrentHashMap<>();
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_SIZE = 22;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int MAX_COMMENT_SIZE = 0xffff;
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+  private static final int ENCRYPTED_FLAG = 1;
+
+  private final ByteBuffer buffer;
+  private final Map<String, Entry> entries;
+
+  private JarIndex(ByteBuffer buffer, Map<String, Entry> entries) {
+    this.buffer = buffer;
+    this.entries = entries;
+  }
+
+  /** Returns the index of the given jar, or empty if it can't be indexed. */
+  static Optional<JarIndex> forJar(Path jarPath) {
+    Path path = jarPath.toAbsolutePath().normalize();
+    Key key;
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      key = new Key(path, attributes.size(), attributes.lastModifiedTime());
+    } catch (IOException e) {
+      Logger.info("Can't index %s, reading it through a class loader: %s", path, e);
+      return Optional.empty();
+    }
+    Optional<JarIndex> index = indexes.get(key);
+    if (index == null) {
+      // Drop the indexes of previous versions of the jar, so that their mappings can be released.
+      indexes.keySet().removeIf(k -> k.path.equals(path) && !k.equals(key));
+      index = indexes.computeIfAbsent(key, k -> build(k.path));
+    }
+    return index;
+  }
+
+  private static Optional<JarIndex> build(Path jarPath) {
+    return PerfStatsCollector.getInstance()
+        .measure(
+            "JarIndex-build",
+            () -> {
+              try (FileChannel channel = FileChannel.open(jarPath, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                  return Optional.empty();
+                }
+                // The mapping stays valid after the channel is closed.
+                ByteBuffer buffer =
+                    channel
+                        .map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                return Optional.of(new JarIndex(buffer, readEntries(buffer)));
+              } catch (IOException | IndexOutOfBoundsException e) {
+                Logger.info("Can't index %s, reading it through a class loader: %s", jarPath, e);
+                return Optional.empty();
+              }
+            });
+  }
+
+  /** Returns the uncompressed bytes of the given entry, or null if there is no such entry. */
+  @Nullable
+  byte[] read(String name) throws IOException {
+    Entry entry = entries.get(name);
+    if (entry == null) {
+      return null;
+    }
+    // Each read uses its own view of the mapping, as reads can happen concurrently.
+    ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    int header = toInt(entry.localHeaderOffset);
+    if (data.getInt(header) != LOCAL_HEADER_SIGNATURE) {
+      throw new ZipException("Bad local header for " + name);
+    }
+    int dataStart =
+        header
+            + LOCAL_HEADER_SIZE
+            + getUnsignedShort(data, header + 26)
+            + getUnsignedShort(data, header + 28);
+    data.limit(toInt(dataStart + entry.compressedSize)).position(dataStart);
+
+    byte[] bytes = new byte[toInt(entry.size)];
+    if (entry.method == STORED) {
+      data.get(bytes);
+      return bytes;
+    }
+    Inflater inflater = new Inflater(/* nowrap= */ true);
+    try {
+      inflater.setInput(data);
+      int length = 0;
+      while (length < bytes.length) {
+        int inflated = inflater.inflate(bytes, length, bytes.length - length);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new ZipException("Truncated entry " + name);
+        }
+        length += inflated;
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException("Corrupt entry " + name + ": " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+    return bytes;
+  }
+
+  private static Map<String, Entry> readEntries(ByteBuffer buffer) throws ZipException {
+    int end = findEnd(buffer);
+    long count = getUnsignedShort(buffer, end + 10);
+    long centralDirectoryOffset = getUnsignedInt(buffer, end + 16);
+    if (count == 0xffff || centralDirectoryOffset == 0xffffffffL) {
+      int locator = end - ZIP64_LOCATOR_SIZE;
+      if (locator < 0 || buffer.getInt(locator) != ZIP64_LOCATOR_SIGNATURE) {
+        throw new ZipException("Missing zip64 end of central directory locator");
+      }
+      int zip64End = toInt(buffer.getLong(locator + 8));
+      if (buffer.getInt(zip64End) != ZIP64_END_SIGNATURE) {
+        throw new ZipException("Missing zip64 end of central directory");
+      }
+      count = buffer.getLong(zip64End + 32);
+      centralDirectoryOffset = buffer.getLong(zip64End + 48);
+    }
+
+    Map<String, Entry> entries = new HashMap<>(toInt(count * 4 / 3 + 1));
+    int position = toInt(centralDirectoryOffset);
+    for (long i = 0; i < count; i++) {
+      if (buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+        throw new ZipException("Bad central directory header");
+      }
+      int flags = getUnsignedShort(buffer, position + 8);
+      int method = getUnsignedShort(buffer, position + 10);
+      long compressedSize = getUnsignedInt(buffer, position + 20);
+      long size = getUnsignedInt(buffer, position + 24);
+      int nameLength = getUnsignedShort(buffer, position + 28);
+      int extraLength = getUnsignedShort(buffer, position + 30);
+      int commentLength = getUnsignedShort(buffer, position + 32);
+      long localHeaderOffset = getUnsignedInt(buffer, position + 42);
+      int nameStart = position + CENTRAL_HEADER_SIZE;
+      byte[] nameBytes = new byte[nameLength];
+      buffer.duplicate().position(nameStart).get(nameBytes);
+      String name = new String(nameBytes, UTF_8);
+
+      if (size == 0xffffffffL
+          || compressedSize == 0xffffffffL
+          || localHeaderOffset == 0xffffffffL) {
+        // The actual values are in the zip64 extra field, in this order, if they didn't fit.
+        int extra = nameStart + nameLength;
+        int extraEnd = extra + extraLength;
+        while (extra + 4 <= extraEnd) {
+          int id = getUnsignedShort(buffer, extra);
+          int dataSize = getUnsignedShort(buffer, extra + 2);
+          if (id == ZIP64_EXTRA_ID) {
+            int field = extra + 4;
+            if (size == 0xffffffffL) {
+              size = buffer.getLong(field);
+              field += 8;
+            }
+            if (compressedSize == 0xffffffffL) {
+              compressedSize = buffer.getLong(field);
+              field += 8;
+            }
+            if (localHeaderOffset == 0xffffffffL) {
+              localHeaderOffset = buffer.getLong(field);
+            }
+            break;
+          }
+          extra += 4 + dataSize;
+        }
+      }
+
+      if ((flags & ENCRYPTED_FLAG) != 0 || (method != STORED && method != DEFLATED)) {
+        throw new ZipException("Unsupported entry " + name);
+      }
+      // Like class loaders, only see the first of duplicate entries.
+      entries.putIfAbsent(name, new Entry(method, localHeaderOffset, compressedSize, size));
+      position = nameStart + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  private static int findEnd(ByteBuffer buffer) throws ZipException {
+    int lowest = Math.max(0, buffer.limit() - END_SIZE - MAX_COMMENT_SIZE);
+    for (int position = buffer.limit() - END_SIZE; position >= lowest; position--) {
+      if (buffer.getInt(position) == END_SIGNATURE) {
+        return position;
+      }
+    }
+    throw new ZipException("Missing end of central directory");
+  }
+
+  private static int getUnsignedShort(ByteBuffer buffer, int position) {
+    return buffer.getShort(position) & 0xffff;
+  }
+
+  private static long getUnsignedInt(ByteBuffer buffer, int position) {
+    return buffer.getInt(position) & 0xffffffffL;
+  }
+
+  private static int toInt(long value) {
+    if (value < 0 || value > Integer.MAX_VALUE) {
+      throw new IndexOutOfBoundsException("Offset out of range: " + value);
+    }
+    return (int) value;
+  }
+
+  /** Identifies a version of a jar. */
+  private static final class Key {
+    private final Path path;
+    private final long size;
+    private final FileTime lastModifiedTime;
+
+    private Key(Path path, long size, FileTime lastModifiedTime) {
+      this.path = path;
+      this.size = size;
+      this.lastModifiedTime = lastModifiedTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return path.equals(that.path)
+          && size == that.size
+          && lastModifiedTime.equals(that.lastModifiedTime);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, size, lastModifiedTime);
+    }
+  }
+
+  private static final class Entry {
+    private final int method;
+    private final long localHeaderOffset;
+    private final long compressedSize;
+    private final long size;
+
+    private Entry(int method, long localHeaderOffset, long compressedSize, long size) {
+      this.method = method;
+      this.localHeaderOffset = localHeaderOffset;
+      this.compressedSize = compressedSize;
+      this.size = size;
+    }
+  }
+}
@@ -1,25 +1,99 @@
 package org.robolectric.simulator;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.util.Log;
+import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.Semaphore;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import org.robolectric.simulator.pluginapi.ScreenRecorder;
+import org.robolectric.util.PerfStatsCollector;
 
+/**
+ * A {@link FrameListener} that records frames with a {@link ScreenRecorder}.
+ *
+ * <p>Frames are encoded on a background thread, so that encoding doesn't stall the main looper.
+ * Frames waiting to be encoded are held in a bounded queue, whose size is set with the {@code
+ * robolectric.videoQueueSize} system property. What happens when the queue is full is set with the
+ * {@code robolectric.videoQueuePolicy} system property, see {@link QueuePolicy}.
+ *
+ * <p>A frame that fails to be recorded is logged and skipped. If the encoder thread dies anyway,
+ * later frames are dropped rather than queued, so that the main looper never waits for it.
+ */
 public class ScreenRecorderFrameListener implements FrameListener {
 
+  /** What to do with a frame when the queue of frames waiting to be encoded is full. */
+  public enum QueuePolicy {
+    /** Wait until the encoder has room for the frame, so that every frame is recorded. */
+    BLOCK,
+    /**
+     * Drop the oldest queued frame, so that recording never stalls the main looper. The number of
+     * dropped frames is logged when recording stops.
+     */
+    DROP_OLDEST
+  }
+
+  private static final String TAG = "ScreenRecorderFrameListener";
+  private static final int DEFAULT_QUEUE_SIZE = 8;
+
   private final float displayWidth;
   private final float displayHeight;
-  private ScreenRecorder screenRecorder = null;
-  private final Semaphore writingFrame = new Semaphore(1);
+  private final ScreenRecorder screenRecorder;
+  @Nullable private final String instanceName;
+  private final BlockingQueue<Frame> queue;
+  private final QueuePolicy queuePolicy;
+  private final AtomicInteger droppedFrames = new AtomicInteger();
+  private Thread encoderThread;
+  private volatile boolean stopped;
+  private int maxQueueDepth;
 
   public ScreenRecorderFrameListener(
       ScreenRecorder screenRecorder, float displayWidth, float displayHeight) {
+    this(screenRecorder, displayWidth, displayHeight, null);
+  }
+
+  /**
+   * Creates a listener for one of several simulator instances in the same JVM if {@code
+   * instanceName} is not null. The name of the video file of such an instance is prefixed with the
+   * instance name.
+   */
+  public ScreenRecorderFrameListener(
+      ScreenRecorder screenRecorder,
+      float displayWidth,
+      float displayHeight,
+      @Nullable String instanceName) {
+    this(
+        screenRecorder,
+        displayWidth,
+        displayHeight,
+        instanceName,
+        Integer.getInteger("robolectric.videoQueueSize", DEFAULT_QUEUE_SIZE),
+        QueuePolicy.valueOf(
+            System.getProperty("robolectric.videoQueuePolicy", QueuePolicy.BLOCK.name())
+                .toUpperCase(Locale.ROOT)));
+  }
+
+  public ScreenRecorderFrameListener(
+      ScreenRecorder screenRecorder,
+      float displayWidth,
+      float displayHeight,
+      @Nullable String instanceName,
+      int queueSize,
+      QueuePolicy queuePolicy) {
     this.displayWidth = displayWidth;
     this.displayHeight = displayHeight;
     this.screenRecorder = screenRecorder;
+    this.instanceName = instanceName;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.queuePolicy = queuePolicy;
   }
 
   @Override
@@ -38,37 +112,144 @@ public class ScreenRecorderFrameListener implements FrameListener {
         (int) this.displayHeight,
         new ScreenRecorder.FrameRate(24, 1));
 
-    Runtime.getRuntime()
-        .addShutdownHook(
-            new Thread(
-                () -> {
-                  // Make sure that we don't stop the screen recorder in the middle of a write!
-                  writingFrame.acquireUninterruptibly();
-                  screenRecorder.stop();
-                  screenRecorder = null;
-                  writingFrame.release();
-                }));
+    encoderThread = new Thread(this::encodeFrames, TAG + "-encoder");
+    encoderThread.setDaemon(true);
+    encoderThread.start();
+
+    Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
   }
 
   @Override
   public void onFrame(Bitmap bitmap) {
-    writingFrame.acquireUninterruptibly();
-    if (screenRecorder != null) {
-      screenRecorder.recordFrame(bitmap);
-    } else {
-      bitmap.recycle();
+    onFrame(new Frame(bitmap, new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight())));
+  }
+
+  @Override
+  public void onFrame(Frame frame) {
+    if (encoderThread == null || stopped || !encoderThread.isAlive()) {
+      frame.release();
+      return;
+    }
+    // Queue the shared frame rather than a copy; the bitmap is only copied on the encoder thread if
+    // other listeners still use it by then.
+    if (queuePolicy == QueuePolicy.DROP_OLDEST) {
+      while (!queue.offer(frame)) {
+        Frame oldFrame = queue.poll();
+        if (oldFrame != null) {
+          // Counted and logged once on stop, as logging every dropped frame would flood logcat.
+          droppedFrames.incrementAndGet();
+          PerfStatsCollector.getInstance().incrementCount(TAG + "-droppedFrame");
+          oldFrame.release();
+        }
+      }
+    } else if (!queue.offer(frame)) {
+      boolean queued;
+      try {
+        queued =
+            PerfStatsCollector.getInstance()
+                .measure(TAG + "-waitForEncoder", () -> offerWhileEncoding(frame));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        queued = false;
+      }
+      if (!queued) {
+        frame.release();
+        return;
+      }
+    }
+    int queueDepth = queue.size();
+    if (queueDepth > maxQueueDepth) {
+      maxQueueDepth = queueDepth;
+      PerfStatsCollector.getInstance().recordCount(TAG + "-maxQueueDepth", queueDepth);
+    }
+  }
+
+  /** Waits until there is room for the frame, and returns false if the encoder died meanwhile. */
+  private boolean offerWhileEncoding(Frame frame) throws InterruptedException {
+    while (!queue.offer(frame, 100, MILLISECONDS)) {
+      if (!encoderThread.isAlive()) {
+        return false;
+      }
     }
-    writingFrame.release();
+    return true;
+  }
+
+  private void encodeFrames() {
+    try {
+      while (true) {
+        Frame frame;
+        try {
+          frame = queue.poll(100, MILLISECONDS);
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (frame != null) {
+          encodeFrame(frame);
+        } else if (stopped) {
+          // The queue is drained.
+          return;
+        }
+      }
+    } finally {
+      // Frames queued after the encoder died are released by stop().
+      releaseQueuedFrames();
+    }
+  }
+
+  private void encodeFrame(Frame frame) {
+    try {
+      Bitmap bitmap = frame.detachBitmap();
+      PerfStatsCollector.getInstance()
+          .measure(TAG + "-recordFrame", () -> screenRecorder.recordFrame(bitmap));
+    } catch (RuntimeException e) {
+      Log.e(TAG, "Failed to record frame", e);
+      PerfStatsCollector.getInstance().incrementCount(TAG + "-failedFrame");
+    }
+  }
+
+  private void releaseQueuedFrames() {
+    Frame frame;
+    while ((frame = queue.poll()) != null) {
+      frame.release();
+    }
+  }
+
+  /** Encodes the queued frames, and stops the screen recorder. */
+  @VisibleForTesting
+  synchronized void stop() {
+    if (stopped) {
+      return;
+    }
+    stopped = true;
+    try {
+      encoderThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    releaseQueuedFrames();
+    screenRecorder.stop();
+    if (droppedFrames.get() > 0) {
+      Log.w(TAG, "Dropped " + droppedFrames.get() + " frames, as encoding fell behind");
+    }
+  }
+
+  @VisibleForTesting
+  int getDroppedFrameCount() {
+    return droppedFrames.get();
   }
 
   private Path getVideoPath() throws IOException {
     if (System.getProperty("robolectric.videoPath") != null) {
       Path videoPath = Path.of(System.getProperty("robolectric.videoPath"));
+      if (instanceName != null) {
+        videoPath = videoPath.resolveSibling(instanceName + "-" + videoPath.getFileName());
+      }
       Files.createDirectories(videoPath.getParent());
       return videoPath;
     } else {
       return Files.createTempFile(
-          "robolectric", System.getProperty("robolectric.videoExtension", "webm"));
+          instanceName == null ? "robolectric" : "robolectric-" + instanceName + "-",
+          System.getProperty("robolectric.videoExtension", "webm"));
     }
   }
 }
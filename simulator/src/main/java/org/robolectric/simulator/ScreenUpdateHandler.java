@@ -1,12 +1,14 @@
 package org.robolectric.simulator;
 
 import static android.os.Build.VERSION_CODES.BAKLAVA;
+import static android.os.Build.VERSION_CODES.Q;
 import static android.os.Looper.getMainLooper;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.robolectric.RuntimeEnvironment.getApiLevel;
 import static org.robolectric.Shadows.shadowOf;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
@@ -16,6 +18,7 @@ import android.view.View;
 import android.view.ViewTreeObserver.OnDrawListener;
 import android.view.inspector.WindowInspector;
 import androidx.test.platform.app.InstrumentationRegistry;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.errorprone.annotations.FormatMethod;
 import java.util.List;
@@ -26,16 +29,21 @@ import java.util.function.Consumer;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.robolectric.shadows.ShadowViewRootImpl;
+import org.robolectric.shadows.ShadowViewRootImpl.DrawDamageListener;
 import org.robolectric.util.PerfStatsCollector;
 
 /**
  * A handler that sends events to take a screenshot and update the Swing UI/VideoRecorder when
  * needed.
  *
+ * <p>Each frame carries the region of the screen that changed since the previous frame, which is
+ * tracked from the windows that were drawn in between. Frames in which nothing changed are not sent
+ * to the listeners at all.
+ *
  * <p>Requires ShadowView.useRealDrawTraversals to be enabled.
  */
 public class ScreenUpdateHandler extends Handler
-    implements OnDrawListener, Consumer<List<View>>, Executor {
+    implements OnDrawListener, DrawDamageListener, Consumer<List<View>>, Executor {
 
   private static final int UPDATE_SCREEN = 102;
   private static final int START_UI = 101;
@@ -46,6 +54,14 @@ public class ScreenUpdateHandler extends Handler
 
   private long lastCaptureTime = -1;
 
+  // The region of the screen drawn since the last capture, in screen coordinates.
+  private final Rect pendingDamage = new Rect();
+  // Whether the whole screen must be considered changed, e.g. because windows were added or moved.
+  private boolean fullDamage = true;
+  private List<WindowState> lastWindows = ImmutableList.of();
+  private int lastWidth = -1;
+  private int lastHeight = -1;
+
   private ScreenUpdateHandler(ImmutableList<FrameListener> frameListeners) {
     super(Looper.getMainLooper());
     this.frameListeners = frameListeners;
@@ -105,6 +121,7 @@ public class ScreenUpdateHandler extends Handler
    */
   public void registerDrawListener() {
     log("registerDrawListener");
+    ShadowViewRootImpl.internalRegisterGlobalDrawDamageListener(this);
     ShadowViewRootImpl.internalRegisterGlobalOnDrawListener(this);
   }
 
@@ -139,14 +156,22 @@ public class ScreenUpdateHandler extends Handler
     if (SystemClock.uptimeMillis() > lastCaptureTime) {
       log("captureScreen");
       lastCaptureTime = SystemClock.uptimeMillis();
+      checkWindowsChanged();
       final Bitmap bitmap = takeScreenshot();
+      Rect dirtyRect = takeDirtyRect(bitmap.getWidth(), bitmap.getHeight());
+      if (dirtyRect.isEmpty()) {
+        log("nothing changed on screen, skipping frame");
+        PerfStatsCollector.getInstance().incrementCount("ScreenUpdateHandler-unchangedFrame");
+        bitmap.recycle();
+        return;
+      }
+      // All listeners share the frame. The last one gets the reference of this handler, so that
+      // it can take over the bitmap without a copy if it is the only one left to use it.
+      Frame frame = new Frame(bitmap, dirtyRect);
       ListIterator<FrameListener> listenerIterator = frameListeners.listIterator();
       while (listenerIterator.hasNext()) {
         FrameListener frameListener = listenerIterator.next();
-        // only copy the bitmap if necessary. If this is the last frameListener in the list, use
-        // original
-        Bitmap bitmapForListener = listenerIterator.hasNext() ? copyBitmap(bitmap) : bitmap;
-        frameListener.onFrame(bitmapForListener);
+        frameListener.onFrame(listenerIterator.hasNext() ? frame.retain() : frame);
       }
     } else {
       log("skipping captureScreen");
@@ -160,9 +185,54 @@ public class ScreenUpdateHandler extends Handler
             () -> InstrumentationRegistry.getInstrumentation().getUiAutomation().takeScreenshot());
   }
 
-  private Bitmap copyBitmap(Bitmap orig) {
-    return PerfStatsCollector.getInstance()
-        .measure("ScreenUpdateHandler-copyBitmap", () -> orig.copy(orig.getConfig(), false));
+  /** Returns the region of the screen that changed since the last capture, and resets it. */
+  @VisibleForTesting
+  Rect takeDirtyRect(int width, int height) {
+    Rect screen = new Rect(0, 0, width, height);
+    Rect dirtyRect;
+    if (fullDamage || width != lastWidth || height != lastHeight) {
+      dirtyRect = screen;
+    } else {
+      dirtyRect = new Rect(pendingDamage);
+      if (!dirtyRect.intersect(screen)) {
+        dirtyRect.setEmpty();
+      }
+    }
+    lastWidth = width;
+    lastHeight = height;
+    fullDamage = false;
+    pendingDamage.setEmpty();
+    return dirtyRect;
+  }
+
+  /**
+   * Considers the whole screen changed if windows were added, removed, moved, resized or hidden
+   * since the last capture, as that changes the screen without necessarily drawing anything.
+   */
+  @VisibleForTesting
+  void checkWindowsChanged() {
+    if (getApiLevel() < Q) {
+      // WindowInspector is not available, so changes to windows can't be detected.
+      fullDamage = true;
+      return;
+    }
+    List<WindowState> windows =
+        WindowInspector.getGlobalWindowViews().stream()
+            .map(WindowState::new)
+            .collect(toImmutableList());
+    if (!windows.equals(lastWindows)) {
+      fullDamage = true;
+      lastWindows = windows;
+    }
+  }
+
+  /** The global draw damage listener callback */
+  @Override
+  public void onDrawDamage(View rootView, Rect damage) {
+    int[] locationOnScreen = new int[2];
+    rootView.getLocationOnScreen(locationOnScreen);
+    damage.offset(locationOnScreen[0], locationOnScreen[1]);
+    pendingDamage.union(damage);
   }
 
   /** The global onDraw listener callback */
@@ -194,6 +264,46 @@ public class ScreenUpdateHandler extends Handler
     }
   }
 
+  /** The position, size and visibility of a window, to detect changes that don't draw. */
+  private static final class WindowState {
+    private final View rootView;
+    private final int left;
+    private final int top;
+    private final int width;
+    private final int height;
+    private final boolean shown;
+
+    WindowState(View rootView) {
+      int[] locationOnScreen = new int[2];
+      rootView.getLocationOnScreen(locationOnScreen);
+      this.rootView = rootView;
+      this.left = locationOnScreen[0];
+      this.top = locationOnScreen[1];
+      this.width = rootView.getWidth();
+      this.height = rootView.getHeight();
+      this.shown = rootView.isShown();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof WindowState)) {
+        return false;
+      }
+      WindowState that = (WindowState) o;
+      return rootView == that.rootView
+          && left == that.left
+          && top == that.top
+          && width == that.width
+          && height == that.height
+          && shown == that.shown;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(rootView), left, top, width, height, shown);
+    }
+  }
+
   /** The executor callback for GlobalWindowViewsListener */
   @Override
   public void execute(Runnable command) {
@@ -206,6 +316,7 @@ public class ScreenUpdateHandler extends Handler
 
   public void newTestStarted() {
     lastCaptureTime = -1;
+    fullDamage = true;
     registerWindowListener();
     requestUpdateScreen();
   }
@@ -20,10 +20,13 @@ import androidx.test.platform.app.InstrumentationRegistry;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Preconditions;
 import java.awt.GraphicsEnvironment;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
 import org.robolectric.Robolectric;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.LooperMode.Mode;
@@ -47,6 +50,7 @@ import org.robolectric.util.inject.Injector;
 public final class Simulator {
 
   private boolean headless = false;
+  @Nullable private final String instanceName;
   private RemoteControl remoteControl = null;
 
   private final Class<? extends Activity> activityClassToLaunch;
@@ -60,22 +64,41 @@ public final class Simulator {
   }
 
   public Simulator(Class<? extends Activity> activityClassToLaunch) {
+    this(activityClassToLaunch, null);
+  }
+
+  /**
+   * Creates a simulator that runs as one of several instances in the same JVM if {@code
+   * instanceName} is not null.
+   *
+   * <p>Such an instance is always headless, and doesn't show a window. It only sends its frames to
+   * the screen recorder, to a video file named after the instance, and reports the CPU time of its
+   * main thread under its name on shutdown, instead of publishing process-wide perf stats.
+   */
+  public Simulator(Class<? extends Activity> activityClassToLaunch, @Nullable String instanceName) {
     this.activityClassToLaunch = activityClassToLaunch;
-    this.headless = GraphicsEnvironment.isHeadless();
+    this.instanceName = instanceName;
+    this.headless = instanceName != null || GraphicsEnvironment.isHeadless();
     this.injector = new Injector.Builder(Looper.class.getClassLoader()).build();
   }
 
   public void start() {
     Preconditions.checkState(ShadowView.useRealGraphics());
     Preconditions.checkState(ShadowLooper.looperMode() != Mode.LEGACY);
-    System.setProperty("java.awt.headless", headless ? "true" : "false");
+    if (instanceName == null) {
+      System.setProperty("java.awt.headless", headless ? "true" : "false");
+    }
     ShadowView.setUseRealViewAnimations(true);
     ShadowView.setUseRealDrawTraversals(true);
     ShadowChoreographer.setPaused(true);
     ShadowChoreographer.setFrameDelay(Duration.ofMillis(15));
     ShadowLog.setCaptureLogsEnabled(false);
 
-    setupPerfStats();
+    if (instanceName == null) {
+      setupPerfStats();
+    } else {
+      logInstanceCpuOnShutdown(Thread.currentThread());
+    }
 
     Application application = RuntimeEnvironment.getApplication();
     DisplayManager displayManager = application.getSystemService(DisplayManager.class);
@@ -128,13 +151,15 @@ public final class Simulator {
   }
 
   private void startUi(int apiLevel, int width, int height) {
-    FrameListener swingFrameListener = new SwingFrameListener(headless, apiLevel, width, height);
+    // Nobody can see the panel of an instance, so don't spend time on copying frames to it.
+    FrameListener swingFrameListener =
+        instanceName == null ? new SwingFrameListener(headless, apiLevel, width, height) : null;
 
     ScreenRecorderFrameListener screenRecorderFrameListener = null;
     if (Boolean.parseBoolean(System.getProperty("robolectric.recordVideo", "false"))) {
       screenRecorderFrameListener =
           new ScreenRecorderFrameListener(
-              injector.getInstance(ScreenRecorder.class), width, height);
+              injector.getInstance(ScreenRecorder.class), width, height, instanceName);
     }
     screenUpdateHandler =
         ScreenUpdateHandler.create(screenRecorderFrameListener, swingFrameListener);
@@ -192,6 +217,24 @@ public final class Simulator {
     }
   }
 
+  private void logInstanceCpuOnShutdown(Thread mainThread) {
+    ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+    if (!threadMxBean.isThreadCpuTimeSupported()) {
+      return;
+    }
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  long cpuTimeNanos = threadMxBean.getThreadCpuTime(mainThread.getId());
+                  if (cpuTimeNanos >= 0) {
+                    System.err.printf(
+                        "Simulator instance %s main thread CPU time: %.1fs%n",
+                        instanceName, cpuTimeNanos / 1e9);
+                  }
+                }));
+  }
+
   private static void logMemoryAndCpu() {
     System.err.println();
     System.err.printf(
@@ -6,7 +6,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -16,7 +15,6 @@ import javax.inject.Named;
 import org.robolectric.internal.AndroidSandbox;
 import org.robolectric.internal.bytecode.ClassInstrumentor;
 import org.robolectric.internal.bytecode.InstrumentationConfiguration;
-import org.robolectric.internal.bytecode.UrlResourceProvider;
 import org.robolectric.pluginapi.Sdk;
 
 /**
@@ -26,15 +24,18 @@ import org.robolectric.pluginapi.Sdk;
 @AutoService(AndroidSandbox.SdkSandboxClassLoader.class)
 public class SimulatorClassLoader extends AndroidSandbox.SdkSandboxClassLoader {
 
-  private final URLClassLoader extraClassLoader;
+  private final IndexedJarResourceProvider extraJars;
 
   public SimulatorClassLoader(
       InstrumentationConfiguration config,
       @Named("runtimeSdk") Sdk runtimeSdk,
       ClassInstrumentor classInstrumentor,
       JarCollection jarCollection) {
-    super(config, runtimeSdk, classInstrumentor);
-    extraClassLoader = new UrlResourceProvider(jarCollection.getUrls());
+    super(
+        config,
+        new IndexedJarResourceProvider(ImmutableList.of(runtimeSdk.getJarPath())),
+        classInstrumentor);
+    extraJars = new IndexedJarResourceProvider(jarCollection.getPaths());
   }
 
   /**
@@ -48,10 +49,13 @@ public class SimulatorClassLoader extends AndroidSandbox.SdkSandboxClassLoader {
    *   <li>The extra jars managed by the simulator (deploy jar and extra jars passed as args)
    *   <li>The jars that are on the runtime classpath.
    * </ol>
+   *
+   * <p>Both the Android framework jar and the extra jars are read through a {@link JarIndex}, which
+   * is built once per jar and shared by all sandboxes.
    */
   @Override
   protected InputStream getClassBytesFromAlternateClassLoader(String classResName) {
-    return extraClassLoader.getResourceAsStream(classResName);
+    return extraJars.getResourceAsStream(classResName);
   }
 
   /**
@@ -63,16 +67,14 @@ public class SimulatorClassLoader extends AndroidSandbox.SdkSandboxClassLoader {
   public Enumeration<URL> findResources(String name) throws IOException {
     ArrayList<URL> urls = new ArrayList<>();
     urls.addAll(Collections.list(super.findResources(name)));
-    urls.addAll(Collections.list(extraClassLoader.findResources(name)));
+    urls.addAll(Collections.list(extraJars.findResources(name)));
     return Collections.enumeration(urls);
   }
 
   @Override
   protected URL getResourceUrl(String name) {
-    if (extraClassLoader.getResource(name) != null) {
-      return extraClassLoader.getResource(name);
-    }
-    return super.getResourceUrl(name);
+    URL url = extraJars.getResource(name);
+    return url != null ? url : super.getResourceUrl(name);
   }
 
   /** Encapsulates a collection of Jar files. */
@@ -84,6 +86,10 @@ public class SimulatorClassLoader extends AndroidSandbox.SdkSandboxClassLoader {
       this.jarPaths = ImmutableList.copyOf(jarPaths);
     }
 
+    public ImmutableList<Path> getPaths() {
+      return jarPaths;
+    }
+
     public URL[] getUrls() {
       return jarPaths.stream().map(JarCollection::toUrl).toArray(URL[]::new);
     }
@@ -1,15 +1,33 @@
 package org.robolectric.simulator;
 
+import static java.lang.Math.max;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.lang.reflect.Constructor;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.robolectric.internal.AndroidSandbox;
+import org.robolectric.res.android.ConfigDescription;
+import org.robolectric.res.android.ResTable_config;
 
 /** The main class for the Robolectric Simulator. */
 public final class SimulatorMain {
 
+  // The locale of Robolectric's default qualifiers.
+  private static final String DEFAULT_LOCALE = "en-US";
+
   public static void main(String[] args) {
     if (args.length < 1) {
       System.err.println("Command-line usage: SimulatorLauncher <apk> [extra_jars]");
@@ -29,19 +47,78 @@ public final class SimulatorMain {
       extraClasspathEntries.add(Path.of(args[i]));
     }
 
-    final AndroidSandbox androidSandbox =
-        SandboxBuilder.newBuilder()
-            .addClasspathEntries(extraClasspathEntries)
-            .setSdkVersion(getSdkVersion())
-            .build();
+    int instances = getInstanceCount();
+    if (instances == 1) {
+      runApp(buildSandbox(extraClasspathEntries), apkFile.toPath(), null, getInstanceQualifiers(0));
+    } else {
+      runInstances(apkFile.toPath(), extraClasspathEntries, instances);
+    }
+  }
 
+  /**
+   * Runs several headless simulator instances of the app concurrently, each one in its own sandbox
+   * with its own main thread, until the JVM shuts down.
+   *
+   * <p>Sandboxes isolate the Android state of each instance, but not the state of the JVM. Each
+   * instance sets the JVM's default {@link Locale} to the locale of its qualifiers when it starts,
+   * so all instances must use the same locale. The security providers that instances install are
+   * global too, but they are the same for every instance.
+   */
+  private static void runInstances(Path apkPath, List<Path> extraClasspathEntries, int instances) {
+    List<String> instanceQualifiers = new ArrayList<>();
+    for (int i = 0; i < instances; i++) {
+      instanceQualifiers.add(getInstanceQualifiers(i));
+    }
+    checkSameLocale(instanceQualifiers);
+    // Instances don't have windows, and the headless mode of AWT is global.
+    System.setProperty("java.awt.headless", "true");
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            instances, new ThreadFactoryBuilder().setNameFormat("simulator-instance-%d").build());
+    // Sandboxes are built one at a time, as building one may download and unpack the SDK, but the
+    // apps are run concurrently.
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < instances; i++) {
+      AndroidSandbox androidSandbox = buildSandbox(extraClasspathEntries);
+      String instanceName = "instance-" + i;
+      String qualifiers = instanceQualifiers.get(i);
+      futures.add(executor.submit(() -> runApp(androidSandbox, apkPath, instanceName, qualifiers)));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        System.exit(1);
+      } catch (ExecutionException e) {
+        e.getCause().printStackTrace();
+        System.exit(1);
+      }
+    }
+  }
+
+  private static AndroidSandbox buildSandbox(List<Path> extraClasspathEntries) {
+    return SandboxBuilder.newBuilder()
+        .addClasspathEntries(extraClasspathEntries)
+        .setSdkVersion(getSdkVersion())
+        .build();
+  }
+
+  private static void runApp(
+      AndroidSandbox androidSandbox,
+      Path apkPath,
+      @Nullable String instanceName,
+      String qualifiers) {
     try {
       androidSandbox.runOnMainThread(
           () -> {
             try {
               Class<?> appLoaderClass = androidSandbox.bootstrappedClass(AppLoader.class);
-              Constructor<?> ctor = appLoaderClass.getConstructor(AndroidSandbox.class, Path.class);
-              ((Runnable) ctor.newInstance(androidSandbox, apkFile.toPath())).run();
+              Constructor<?> ctor =
+                  appLoaderClass.getConstructor(
+                      AndroidSandbox.class, Path.class, String.class, String.class);
+              ((Runnable) ctor.newInstance(androidSandbox, apkPath, instanceName, qualifiers))
+                  .run();
             } catch (ReflectiveOperationException e) {
               throw new RuntimeException(e);
             }
@@ -52,6 +129,78 @@ public final class SimulatorMain {
     }
   }
 
+  /**
+   * Returns the number of simulator instances to run, from the {@code
+   * robolectric.simulator.instances} system property. Defaults to the number of qualifiers in
+   * {@code robolectric.simulator.qualifiers}, or 1.
+   */
+  @VisibleForTesting
+  static int getInstanceCount() {
+    int instances =
+        Integer.parseInt(
+            System.getProperty(
+                "robolectric.simulator.instances",
+                String.valueOf(max(1, getQualifiersList().size()))));
+    if (instances < 1) {
+      throw new IllegalArgumentException("Invalid number of simulator instances: " + instances);
+    }
+    return instances;
+  }
+
+  /**
+   * Returns the device configuration of an instance, from the semicolon-separated {@code
+   * robolectric.simulator.qualifiers} system property. Instances reuse the qualifiers from the
+   * start of the list if there are more instances than qualifiers.
+   */
+  @VisibleForTesting
+  static String getInstanceQualifiers(int instance) {
+    List<String> qualifiersList = getQualifiersList();
+    return qualifiersList.isEmpty() ? "" : qualifiersList.get(instance % qualifiersList.size());
+  }
+
+  private static List<String> getQualifiersList() {
+    return Splitter.on(';')
+        .trimResults()
+        .omitEmptyStrings()
+        .splitToList(System.getProperty("robolectric.simulator.qualifiers", ""));
+  }
+
+  /** Throws if instances with the given qualifiers would use different default locales. */
+  @VisibleForTesting
+  static void checkSameLocale(List<String> instanceQualifiers) {
+    Set<String> locales = new LinkedHashSet<>();
+    for (String qualifiers : instanceQualifiers) {
+      locales.add(getLocale(qualifiers));
+    }
+    if (locales.size() > 1) {
+      throw new IllegalArgumentException(
+          "Simulator instances share the JVM's default locale, so they can't use different"
+              + " locales: "
+              + locales);
+    }
+  }
+
+  /** Returns the BCP 47 tag of the locale of the given qualifiers. */
+  @VisibleForTesting
+  static String getLocale(String qualifiers) {
+    // Qualifiers starting with '+' are applied on top of the default ones.
+    String ownQualifiers = qualifiers.startsWith("+") ? qualifiers.substring(1) : qualifiers;
+    ResTable_config config = new ResTable_config();
+    if (!ownQualifiers.isEmpty() && !ConfigDescription.parse(ownQualifiers, config)) {
+      throw new IllegalArgumentException("Invalid qualifiers: " + qualifiers);
+    }
+    if (config.languageString().isEmpty()) {
+      return DEFAULT_LOCALE;
+    }
+    return new Locale.Builder()
+        .setLanguage(config.languageString())
+        .setScript(config.localeScriptString())
+        .setRegion(config.regionString())
+        .setVariant(config.localeVariantString())
+        .build()
+        .toLanguageTag();
+  }
+
   private static int getSdkVersion() {
     return Integer.parseInt(System.getProperty("robolectric.deviceconfig.sdk", "35"));
   }
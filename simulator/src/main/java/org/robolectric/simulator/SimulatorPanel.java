@@ -1,15 +1,16 @@
 package org.robolectric.simulator;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.GraphicsEnvironment;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferInt;
 import javax.swing.JPanel;
 
 /** A {@link JPanel} that draws screenshots taken with RNG. */
 public class SimulatorPanel extends JPanel {
+  // Reused for copying pixels from bitmaps into the image.
   private int[] pixels;
   private BufferedImage image;
 
@@ -40,13 +41,38 @@ public class SimulatorPanel extends JPanel {
   }
 
   public void drawBitmap(Bitmap bitmap) {
+    drawBitmap(bitmap, new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight()));
+  }
+
+  /**
+   * Draws the given region of a bitmap. The rest of the bitmap must be the same as the previously
+   * drawn bitmap, unless their sizes differ, in which case the whole bitmap is drawn.
+   */
+  public void drawBitmap(Bitmap bitmap, Rect dirtyRect) {
     int width = bitmap.getWidth();
     int height = bitmap.getHeight();
+    Rect region = new Rect(dirtyRect);
     if (image == null || image.getWidth() != width || image.getHeight() != height) {
       image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-      pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      pixels = new int[width * height];
+      region.set(0, 0, width, height);
+    } else if (!region.intersect(0, 0, width, height)) {
+      return;
     }
-    bitmap.getPixels(pixels, /* offset= */ 0, /* stride= */ width, 0, 0, width, height);
-    repaint();
+    bitmap.getPixels(
+        pixels,
+        /* offset= */ 0,
+        /* stride= */ region.width(),
+        region.left,
+        region.top,
+        region.width(),
+        region.height());
+    // Write through the raster rather than into its data array, as taking the data array would
+    // stop Java2D from caching the image in video memory, where scaling it for HiDPI displays is
+    // cheap.
+    image
+        .getRaster()
+        .setDataElements(region.left, region.top, region.width(), region.height(), pixels);
+    repaint(region.left, region.top, region.width(), region.height());
   }
 }
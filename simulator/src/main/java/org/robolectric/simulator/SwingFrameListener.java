@@ -1,10 +1,10 @@
 package org.robolectric.simulator;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.util.Log;
 import java.awt.Dimension;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import org.robolectric.util.PerfStatsCollector;
@@ -13,7 +13,10 @@ public class SwingFrameListener implements FrameListener {
 
   private SimulatorFrame simulatorFrame;
   private SimulatorPanel simulatorPanel;
-  private final AtomicReference<Bitmap> pendingFrame = new AtomicReference<>();
+  // The latest frame that is waiting to be rendered, and the region that changed since the last
+  // rendered frame, which includes the dirty regions of dropped frames. Guarded by this.
+  private Frame pendingFrame;
+  private final Rect pendingDirtyRect = new Rect();
   private final AtomicBoolean isCallbackPending = new AtomicBoolean(false);
   private final int apiLevel;
   private final int width;
@@ -50,12 +53,22 @@ public class SwingFrameListener implements FrameListener {
 
   @Override
   public void onFrame(Bitmap bitmap) {
-    Bitmap oldFrame = pendingFrame.getAndSet(bitmap);
+    onFrame(new Frame(bitmap, new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight())));
+  }
+
+  @Override
+  public void onFrame(Frame frame) {
+    Frame oldFrame;
+    synchronized (this) {
+      oldFrame = pendingFrame;
+      pendingFrame = frame;
+      pendingDirtyRect.union(frame.getDirtyRect());
+    }
     if (oldFrame != null) {
       // frames are being sent faster than swing can process them, drop the old frame.
       Log.w("SwingFrameListener", "dropping frame");
       PerfStatsCollector.getInstance().incrementCount("SwingFrameListener-droppedFrame");
-      oldFrame.recycle();
+      oldFrame.release();
     }
 
     // don't schedule multiple callbacks if there is one already pending
@@ -66,16 +79,25 @@ public class SwingFrameListener implements FrameListener {
 
   private void renderLatestFrame() {
     isCallbackPending.set(false);
-    Bitmap b = pendingFrame.getAndSet(null);
-    if (b != null) {
-      sendFrameToSwing(b);
-      b.recycle();
+    Frame frame;
+    Rect dirtyRect;
+    synchronized (this) {
+      frame = pendingFrame;
+      pendingFrame = null;
+      dirtyRect = new Rect(pendingDirtyRect);
+      pendingDirtyRect.setEmpty();
+    }
+    if (frame != null) {
+      sendFrameToSwing(frame.getBitmap(), dirtyRect);
+      frame.release();
     }
   }
 
-  private void sendFrameToSwing(Bitmap bitmap) {
+  private void sendFrameToSwing(Bitmap bitmap, Rect dirtyRect) {
     PerfStatsCollector.getInstance()
-        .measure("SwingFrameListener-sendFrameToSwing", () -> simulatorPanel.drawBitmap(bitmap));
+        .measure(
+            "SwingFrameListener-sendFrameToSwing",
+            () -> simulatorPanel.drawBitmap(bitmap, dirtyRect));
     SimulatorPanelRegistry.register(simulatorPanel);
   }
 }
@@ -0,0 +1,92 @@
+package org.robolectric.simulator;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Rect;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.GraphicsMode;
+
+@RunWith(AndroidJUnit4.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class FrameTest {
+  private Bitmap bitmap;
+  private Frame frame;
+
+  @Before
+  public void setUp() {
+    bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    bitmap.eraseColor(Color.RED);
+    frame = new Frame(bitmap, new Rect(1, 2, 3, 4));
+  }
+
+  @Test
+  public void release_lastReference_recyclesBitmap() {
+    frame.release();
+
+    assertThat(bitmap.isRecycled()).isTrue();
+    assertThrows(IllegalStateException.class, frame::getBitmap);
+  }
+
+  @Test
+  public void retain_keepsBitmapUntilAllReferencesAreReleased() {
+    assertThat(frame.retain()).isSameInstanceAs(frame);
+
+    frame.release();
+    assertThat(bitmap.isRecycled()).isFalse();
+    assertThat(frame.getBitmap()).isSameInstanceAs(bitmap);
+
+    frame.release();
+    assertThat(bitmap.isRecycled()).isTrue();
+  }
+
+  @Test
+  public void release_tooOften_throws() {
+    frame.release();
+
+    assertThrows(IllegalStateException.class, frame::release);
+  }
+
+  @Test
+  public void retain_afterRelease_throws() {
+    frame.release();
+
+    assertThrows(IllegalStateException.class, frame::retain);
+  }
+
+  @Test
+  public void detachBitmap_lastReference_takesOverBitmap() {
+    Bitmap detached = frame.detachBitmap();
+
+    assertThat(detached).isSameInstanceAs(bitmap);
+    assertThat(detached.isRecycled()).isFalse();
+    assertThrows(IllegalStateException.class, frame::getBitmap);
+  }
+
+  @Test
+  public void detachBitmap_sharedFrame_copiesBitmap() {
+    frame.retain();
+
+    Bitmap detached = frame.detachBitmap();
+
+    assertThat(detached).isNotSameInstanceAs(bitmap);
+    assertThat(detached.sameAs(bitmap)).isTrue();
+    // The other reference still owns the original bitmap.
+    assertThat(frame.getBitmap()).isSameInstanceAs(bitmap);
+    frame.release();
+    assertThat(bitmap.isRecycled()).isTrue();
+    assertThat(detached.isRecycled()).isFalse();
+  }
+
+  @Test
+  public void getDirtyRect_returnsCopy() {
+    frame.getDirtyRect().setEmpty();
+
+    assertThat(frame.getDirtyRect()).isEqualTo(new Rect(1, 2, 3, 4));
+  }
+}
@@ -0,0 +1,107 @@
+package org.robolectric.simulator;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test for {@link JarIndex}. */
+@RunWith(JUnit4.class)
+public class JarIndexTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void read_deflatedAndStoredEntries() throws Exception {
+    byte[] classBytes = new byte[10_000];
+    new Random(0).nextBytes(classBytes);
+    byte[] text = "hello".repeat(1000).getBytes(UTF_8);
+    Path jar = temporaryFolder.newFile("test.jar").toPath();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      putEntry(out, "com/example/Foo.class", classBytes, ZipEntry.DEFLATED);
+      putEntry(out, "assets/hello.txt", text, ZipEntry.STORED);
+      putEntry(out, "empty.txt", new byte[0], ZipEntry.DEFLATED);
+    }
+
+    JarIndex index = JarIndex.forJar(jar).get();
+
+    assertThat(index.read("com/example/Foo.class")).isEqualTo(classBytes);
+    assertThat(index.read("assets/hello.txt")).isEqualTo(text);
+    assertThat(index.read("empty.txt")).isEmpty();
+    assertThat(index.read("com/example/Bar.class")).isNull();
+    assertThat(index.read("assets/")).isNull();
+  }
+
+  @Test
+  public void forJar_sharesIndexes() throws Exception {
+    Path jar = temporaryFolder.newFile("shared.jar").toPath();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      putEntry(out, "a.txt", new byte[] {1}, ZipEntry.DEFLATED);
+    }
+
+    assertThat(JarIndex.forJar(jar).get()).isSameInstanceAs(JarIndex.forJar(jar).get());
+  }
+
+  @Test
+  public void forJar_rewrittenJar_getsNewIndex() throws Exception {
+    Path jar = temporaryFolder.newFile("rewritten.jar").toPath();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      putEntry(out, "a.txt", new byte[] {1}, ZipEntry.DEFLATED);
+    }
+    JarIndex index = JarIndex.forJar(jar).get();
+
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      putEntry(out, "a.txt", new byte[] {2, 3}, ZipEntry.DEFLATED);
+      putEntry(out, "b.txt", new byte[] {4}, ZipEntry.DEFLATED);
+    }
+    Files.setLastModifiedTime(
+        jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 1000));
+    JarIndex newIndex = JarIndex.forJar(jar).get();
+
+    assertThat(newIndex).isNotSameInstanceAs(index);
+    assertThat(newIndex.read("a.txt")).isEqualTo(new byte[] {2, 3});
+    assertThat(newIndex.read("b.txt")).isEqualTo(new byte[] {4});
+    assertThat(JarIndex.forJar(jar).get()).isSameInstanceAs(newIndex);
+  }
+
+  @Test
+  public void forJar_notAJar() throws Exception {
+    Path file = temporaryFolder.newFile("not-a.jar").toPath();
+    Files.write(file, "not a jar".getBytes(UTF_8));
+
+    assertThat(JarIndex.forJar(file)).isEmpty();
+  }
+
+  @Test
+  public void forJar_missingJar() {
+    assertThat(JarIndex.forJar(temporaryFolder.getRoot().toPath().resolve("missing.jar")))
+        .isEmpty();
+  }
+
+  private static void putEntry(ZipOutputStream out, String name, byte[] bytes, int method)
+      throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(method);
+    if (method == ZipEntry.STORED) {
+      CRC32 crc = new CRC32();
+      crc.update(bytes);
+      entry.setSize(bytes.length);
+      entry.setCompressedSize(bytes.length);
+      entry.setCrc(crc.getValue());
+    }
+    out.putNextEntry(entry);
+    out.write(bytes);
+    out.closeEntry();
+  }
+}
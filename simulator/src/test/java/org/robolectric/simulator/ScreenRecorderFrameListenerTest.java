@@ -0,0 +1,201 @@
+package org.robolectric.simulator;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.shadows.ShadowLog;
+import org.robolectric.shadows.ShadowLog.LogItem;
+import org.robolectric.simulator.ScreenRecorderFrameListener.QueuePolicy;
+import org.robolectric.simulator.pluginapi.ScreenRecorder;
+
+@RunWith(AndroidJUnit4.class)
+public class ScreenRecorderFrameListenerTest {
+  private final FakeScreenRecorder screenRecorder = new FakeScreenRecorder();
+  private final CountDownLatch encoding = new CountDownLatch(1);
+  private final CountDownLatch resume = new CountDownLatch(1);
+  private ScreenRecorderFrameListener listener;
+
+  @After
+  public void tearDown() {
+    resume.countDown();
+    if (listener != null) {
+      listener.stop();
+    }
+  }
+
+  @Test
+  public void block_recordsEveryFrameInOrder() {
+    startListener(1, QueuePolicy.BLOCK);
+    List<Bitmap> bitmaps = createBitmaps(20);
+
+    for (Bitmap bitmap : bitmaps) {
+      listener.onFrame(newFrame(bitmap));
+    }
+    listener.stop();
+
+    assertThat(screenRecorder.recordedFrames).containsExactlyElementsIn(bitmaps).inOrder();
+    assertThat(listener.getDroppedFrameCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void dropOldest_dropsOldestQueuedFramesAndCountsThem() {
+    pauseEncoding();
+    startListener(1, QueuePolicy.DROP_OLDEST);
+    List<Bitmap> bitmaps = createBitmaps(5);
+
+    listener.onFrame(newFrame(bitmaps.get(0)));
+    // The encoder is busy with the first frame, so the others have to wait in the queue.
+    awaitUninterruptibly(encoding);
+    for (Bitmap bitmap : bitmaps.subList(1, 5)) {
+      listener.onFrame(newFrame(bitmap));
+    }
+    resume.countDown();
+    listener.stop();
+
+    assertThat(screenRecorder.recordedFrames)
+        .containsExactly(bitmaps.get(0), bitmaps.get(4))
+        .inOrder();
+    for (Bitmap bitmap : bitmaps.subList(1, 4)) {
+      assertThat(bitmap.isRecycled()).isTrue();
+    }
+    assertThat(listener.getDroppedFrameCount()).isEqualTo(3);
+    List<LogItem> logs = ShadowLog.getLogsForTag("ScreenRecorderFrameListener");
+    assertThat(logs).hasSize(1);
+    assertThat(logs.get(0).msg).contains("Dropped 3 frames");
+  }
+
+  @Test
+  public void stop_recordsQueuedFramesBeforeStoppingRecorder() throws Exception {
+    pauseEncoding();
+    startListener(8, QueuePolicy.BLOCK);
+    List<Bitmap> bitmaps = createBitmaps(4);
+
+    listener.onFrame(newFrame(bitmaps.get(0)));
+    awaitUninterruptibly(encoding);
+    for (Bitmap bitmap : bitmaps.subList(1, 4)) {
+      listener.onFrame(newFrame(bitmap));
+    }
+    Thread stopThread = new Thread(listener::stop);
+    stopThread.start();
+    // Wait until stop() waits for the encoder, with three frames still queued.
+    while (stopThread.getState() != Thread.State.WAITING) {
+      Thread.yield();
+    }
+    resume.countDown();
+    stopThread.join();
+
+    assertThat(screenRecorder.framesRecordedBeforeStop)
+        .containsExactlyElementsIn(bitmaps)
+        .inOrder();
+    listener.stop();
+    assertThat(screenRecorder.stopCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void onFrame_recordFrameThrows_keepsRecording() {
+    screenRecorder.onRecordFrame =
+        () -> {
+          throw new IllegalStateException("failed to encode frame");
+        };
+    startListener(1, QueuePolicy.BLOCK);
+
+    for (Bitmap bitmap : createBitmaps(10)) {
+      listener.onFrame(newFrame(bitmap));
+    }
+    listener.stop();
+
+    assertThat(screenRecorder.recordFrameCalls.get()).isEqualTo(10);
+  }
+
+  @Test
+  public void onFrame_encoderDied_releasesFrames() {
+    screenRecorder.onRecordFrame =
+        () -> {
+          throw new AssertionError("encoder died");
+        };
+    startListener(1, QueuePolicy.BLOCK);
+    List<Bitmap> bitmaps = createBitmaps(10);
+
+    for (Bitmap bitmap : bitmaps) {
+      listener.onFrame(newFrame(bitmap));
+    }
+    listener.stop();
+
+    assertThat(screenRecorder.recordFrameCalls.get()).isEqualTo(1);
+    // The first frame was handed over to the screen recorder.
+    for (Bitmap bitmap : bitmaps.subList(1, 10)) {
+      assertThat(bitmap.isRecycled()).isTrue();
+    }
+  }
+
+  private void pauseEncoding() {
+    screenRecorder.onRecordFrame =
+        () -> {
+          encoding.countDown();
+          awaitUninterruptibly(resume);
+        };
+  }
+
+  private void startListener(int queueSize, QueuePolicy queuePolicy) {
+    listener =
+        new ScreenRecorderFrameListener(screenRecorder, 10, 10, null, queueSize, queuePolicy);
+    listener.onInitialize();
+  }
+
+  private static List<Bitmap> createBitmaps(int count) {
+    List<Bitmap> bitmaps = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      bitmaps.add(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+    }
+    return bitmaps;
+  }
+
+  private static Frame newFrame(Bitmap bitmap) {
+    return new Frame(bitmap, new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight()));
+  }
+
+  private static class FakeScreenRecorder implements ScreenRecorder {
+    final List<Bitmap> recordedFrames = new CopyOnWriteArrayList<>();
+    final AtomicInteger recordFrameCalls = new AtomicInteger();
+    final AtomicInteger stopCount = new AtomicInteger();
+    volatile Runnable onRecordFrame = () -> {};
+    volatile List<Bitmap> framesRecordedBeforeStop;
+
+    @Override
+    public void start(Path output, int width, int height, FrameRate frameRate) {
+      try {
+        Files.deleteIfExists(output);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void recordFrame(Bitmap frame) {
+      recordFrameCalls.incrementAndGet();
+      onRecordFrame.run();
+      recordedFrames.add(frame);
+    }
+
+    @Override
+    public void stop() {
+      framesRecordedBeforeStop = new ArrayList<>(recordedFrames);
+      stopCount.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package org.robolectric.simulator;
+
+import static android.os.Build.VERSION_CODES.Q;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Activity;
+import android.graphics.Rect;
+import android.view.View;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.annotation.Config;
+
+@RunWith(AndroidJUnit4.class)
+@Config(minSdk = Q)
+public class ScreenUpdateHandlerTest {
+  private ScreenUpdateHandler screenUpdateHandler;
+  private View decorView;
+
+  @Before
+  public void setUp() {
+    Activity activity = Robolectric.setupActivity(Activity.class);
+    decorView = activity.getWindow().getDecorView();
+    screenUpdateHandler = ScreenUpdateHandler.create(bitmap -> {});
+  }
+
+  @Test
+  public void takeDirtyRect_firstFrame_isFullScreen() {
+    assertThat(screenUpdateHandler.takeDirtyRect(100, 200)).isEqualTo(new Rect(0, 0, 100, 200));
+  }
+
+  @Test
+  public void takeDirtyRect_accumulatesDamage() {
+    screenUpdateHandler.takeDirtyRect(100, 200);
+
+    screenUpdateHandler.onDrawDamage(decorView, new Rect(10, 10, 20, 20));
+    screenUpdateHandler.onDrawDamage(decorView, new Rect(30, 5, 40, 15));
+
+    assertThat(screenUpdateHandler.takeDirtyRect(100, 200)).isEqualTo(new Rect(10, 5, 40, 20));
+    assertThat(screenUpdateHandler.takeDirtyRect(100, 200).isEmpty()).isTrue();
+  }
+
+  @Test
+  public void takeDirtyRect_clipsDamageToScreen() {
+    screenUpdateHandler.takeDirtyRect(100, 200);
+
+    screenUpdateHandler.onDrawDamage(decorView, new Rect(90, 190, 150, 250));
+
+    assertThat(screenUpdateHandler.takeDirtyRect(100, 200)).isEqualTo(new Rect(90, 190, 100, 200));
+  }
+
+  @Test
+  public void takeDirtyRect_screenResized_isFullScreen() {
+    screenUpdateHandler.takeDirtyRect(100, 200);
+
+    assertThat(screenUpdateHandler.takeDirtyRect(200, 100)).isEqualTo(new Rect(0, 0, 200, 100));
+  }
+
+  @Test
+  public void checkWindowsChanged_windowHidden_isFullScreen() {
+    screenUpdateHandler.checkWindowsChanged();
+    screenUpdateHandler.takeDirtyRect(100, 200);
+
+    screenUpdateHandler.checkWindowsChanged();
+    assertThat(screenUpdateHandler.takeDirtyRect(100, 200).isEmpty()).isTrue();
+
+    decorView.setVisibility(View.GONE);
+    screenUpdateHandler.checkWindowsChanged();
+    assertThat(screenUpdateHandler.takeDirtyRect(100, 200)).isEqualTo(new Rect(0, 0, 100, 200));
+  }
+
+  @Test
+  public void newTestStarted_isFullScreen() {
+    screenUpdateHandler.takeDirtyRect(100, 200);
+
+    screenUpdateHandler.newTestStarted();
+
+    assertThat(screenUpdateHandler.takeDirtyRect(100, 200)).isEqualTo(new Rect(0, 0, 100, 200));
+  }
+}
@@ -0,0 +1,85 @@
+package org.robolectric.simulator;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test for {@link SimulatorMain}. */
+@RunWith(JUnit4.class)
+public class SimulatorMainTest {
+
+  @After
+  public void clearProperties() {
+    System.clearProperty("robolectric.simulator.instances");
+    System.clearProperty("robolectric.simulator.qualifiers");
+  }
+
+  @Test
+  public void getInstanceCount_defaultsToOne() {
+    assertThat(SimulatorMain.getInstanceCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void getInstanceCount_defaultsToNumberOfQualifiers() {
+    System.setProperty("robolectric.simulator.qualifiers", "w320dp-h470dp; ;land;");
+
+    assertThat(SimulatorMain.getInstanceCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void getInstanceCount_fromProperty() {
+    System.setProperty("robolectric.simulator.qualifiers", "port;land");
+    System.setProperty("robolectric.simulator.instances", "5");
+
+    assertThat(SimulatorMain.getInstanceCount()).isEqualTo(5);
+  }
+
+  @Test
+  public void getInstanceCount_invalid() {
+    System.setProperty("robolectric.simulator.instances", "0");
+
+    assertThrows(IllegalArgumentException.class, SimulatorMain::getInstanceCount);
+  }
+
+  @Test
+  public void getInstanceQualifiers_noQualifiers() {
+    assertThat(SimulatorMain.getInstanceQualifiers(0)).isEmpty();
+    assertThat(SimulatorMain.getInstanceQualifiers(3)).isEmpty();
+  }
+
+  @Test
+  public void getInstanceQualifiers_reusesQualifiers() {
+    System.setProperty("robolectric.simulator.qualifiers", " port ;land");
+
+    assertThat(SimulatorMain.getInstanceQualifiers(0)).isEqualTo("port");
+    assertThat(SimulatorMain.getInstanceQualifiers(1)).isEqualTo("land");
+    assertThat(SimulatorMain.getInstanceQualifiers(2)).isEqualTo("port");
+  }
+
+  @Test
+  public void getLocale() {
+    assertThat(SimulatorMain.getLocale("")).isEqualTo("en-US");
+    assertThat(SimulatorMain.getLocale("+land")).isEqualTo("en-US");
+    assertThat(SimulatorMain.getLocale("fr-rCA-land")).isEqualTo("fr-CA");
+    assertThat(SimulatorMain.getLocale("b+sr+Latn")).isEqualTo("sr-Latn");
+  }
+
+  @Test
+  public void getLocale_invalidQualifiers() {
+    assertThrows(IllegalArgumentException.class, () -> SimulatorMain.getLocale("not-qualifiers"));
+  }
+
+  @Test
+  public void checkSameLocale() {
+    SimulatorMain.checkSameLocale(ImmutableList.of("", "land", "en-rUS-w480dp"));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SimulatorMain.checkSameLocale(ImmutableList.of("port", "fr-land")));
+  }
+}
@@ -0,0 +1,87 @@
+package org.robolectric.simulator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Rect;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.GraphicsMode;
+
+@RunWith(AndroidJUnit4.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class SimulatorPanelTest {
+  private final SimulatorPanel panel = new SimulatorPanel();
+
+  @Test
+  public void drawBitmap_dirtyRect_onlyDrawsRegion() {
+    panel.drawBitmap(newBitmap(10, 10, Color.RED));
+
+    panel.drawBitmap(newBitmap(10, 10, Color.BLUE), new Rect(2, 3, 5, 7));
+
+    BufferedImage image = paint(10, 10);
+    assertThat(image.getRGB(2, 3)).isEqualTo(Color.BLUE);
+    assertThat(image.getRGB(4, 6)).isEqualTo(Color.BLUE);
+    assertThat(image.getRGB(1, 3)).isEqualTo(Color.RED);
+    assertThat(image.getRGB(2, 2)).isEqualTo(Color.RED);
+    assertThat(image.getRGB(5, 6)).isEqualTo(Color.RED);
+    assertThat(image.getRGB(4, 7)).isEqualTo(Color.RED);
+  }
+
+  @Test
+  public void drawBitmap_dirtyRect_copiesPixelsAtTheirOffset() {
+    panel.drawBitmap(newBitmap(10, 10, Color.RED));
+    Bitmap bitmap = newBitmap(10, 10, Color.RED);
+    bitmap.setPixel(3, 4, Color.GREEN);
+    bitmap.setPixel(6, 8, Color.BLUE);
+
+    panel.drawBitmap(bitmap, new Rect(3, 4, 7, 9));
+
+    BufferedImage image = paint(10, 10);
+    assertThat(image.getRGB(3, 4)).isEqualTo(Color.GREEN);
+    assertThat(image.getRGB(6, 8)).isEqualTo(Color.BLUE);
+    assertThat(image.getRGB(4, 4)).isEqualTo(Color.RED);
+  }
+
+  @Test
+  public void drawBitmap_dirtyRectOutsideBitmap_isIgnored() {
+    panel.drawBitmap(newBitmap(10, 10, Color.RED));
+
+    panel.drawBitmap(newBitmap(10, 10, Color.BLUE), new Rect(20, 20, 30, 30));
+
+    assertThat(paint(10, 10).getRGB(9, 9)).isEqualTo(Color.RED);
+  }
+
+  @Test
+  public void drawBitmap_sizeChanged_drawsWholeBitmap() {
+    panel.drawBitmap(newBitmap(10, 10, Color.RED));
+
+    panel.drawBitmap(newBitmap(12, 8, Color.BLUE), new Rect(0, 0, 1, 1));
+
+    BufferedImage image = paint(12, 8);
+    assertThat(image.getRGB(0, 0)).isEqualTo(Color.BLUE);
+    assertThat(image.getRGB(11, 7)).isEqualTo(Color.BLUE);
+  }
+
+  private BufferedImage paint(int width, int height) {
+    panel.setSize(width, height);
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    Graphics graphics = image.getGraphics();
+    try {
+      panel.paint(graphics);
+    } finally {
+      graphics.dispose();
+    }
+    return image;
+  }
+
+  private static Bitmap newBitmap(int width, int height, int color) {
+    Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    bitmap.eraseColor(color);
+    return bitmap;
+  }
+}
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.robolectric.pluginapi.perf.Metadata;
 import org.robolectric.pluginapi.perf.Metric;
@@ -14,6 +15,9 @@ import org.robolectric.pluginapi.perf.PerfStatsReporter;
 /**
  * Collects performance statistics for later reporting via {@link PerfStatsReporter}.
  *
+ * <p>Hot paths can look up a {@link MetricHandle} once with {@link #getMetricHandle(String)} and
+ * keep it, so that recording does not need to allocate or look up the metric.
+ *
  * @since 3.6
  */
 public class PerfStatsCollector {
@@ -23,7 +27,10 @@ public class PerfStatsCollector {
   private final Clock clock;
   private final AtomicReference<Metadata> metadata = new AtomicReference<>(null);
   private final Map<MetricKey, Metric> metricMap = new ConcurrentHashMap<>();
+  private final Map<String, MetricHandle> metricHandles = new ConcurrentHashMap<>();
   private final AtomicBoolean enabled = new AtomicBoolean(true);
+  // Incremented by reset(), so that handles stop using the metrics they cached before.
+  private final AtomicInteger generation = new AtomicInteger();
 
   public PerfStatsCollector() {
     this(System::nanoTime);
@@ -54,26 +61,46 @@ public class PerfStatsCollector {
     return enabled.get();
   }
 
+  /**
+   * Returns the handle for the metric with the given name. Handles stay valid across {@link
+   * #reset()}.
+   */
+  public MetricHandle getMetricHandle(String eventName) {
+    MetricHandle handle = metricHandles.get(eventName);
+    if (handle == null) {
+      handle = metricHandles.computeIfAbsent(eventName, name -> new MetricHandle(this, name));
+    }
+    return handle;
+  }
+
   public Event startEvent(String eventName) {
     return new Event(eventName);
   }
 
   public <T, E extends Exception> T measure(String eventName, ThrowingSupplier<T, E> supplier)
       throws E {
-    // Avoid Event overhead if disabled.
+    // Avoid handle lookup if disabled.
+    if (!enabled.get()) {
+      return supplier.get();
+    }
+    return measure(getMetricHandle(eventName), supplier);
+  }
+
+  public <T, E extends Exception> T measure(MetricHandle metric, ThrowingSupplier<T, E> supplier)
+      throws E {
     if (!enabled.get()) {
       return supplier.get();
     }
 
     boolean success = true;
-    Event event = startEvent(eventName);
+    long startTimeNs = clock.nanoTime();
     try {
       return supplier.get();
     } catch (Exception e) {
       success = false;
       throw e;
     } finally {
-      event.finished(success);
+      record(metric, success, clock.nanoTime() - startTimeNs);
     }
   }
 
@@ -82,12 +109,15 @@ public class PerfStatsCollector {
       return;
     }
 
-    MetricKey key = new MetricKey(eventName, true);
-    Metric metric = metricMap.get(key);
-    if (metric == null) {
-      metric = metricMap.computeIfAbsent(key, k -> new Metric(k.name, k.success));
+    incrementCount(getMetricHandle(eventName));
+  }
+
+  public void incrementCount(MetricHandle metric) {
+    if (!enabled.get()) {
+      return;
     }
-    metric.incrementCount();
+
+    getMetric(metric, true).incrementCount();
   }
 
   /**
@@ -101,12 +131,7 @@ public class PerfStatsCollector {
       return;
     }
 
-    MetricKey key = new MetricKey(eventName, true);
-    Metric metric = metricMap.get(key);
-    if (metric == null) {
-      metric = metricMap.computeIfAbsent(key, k -> new Metric(k.name, k.success));
-    }
-    metric.recordCount(count);
+    getMetric(getMetricHandle(eventName), true).recordCount(count);
   }
 
   /** Supplier that throws an exception. */
@@ -117,15 +142,29 @@ public class PerfStatsCollector {
 
   public <E extends Exception> void measure(String eventName, ThrowingRunnable<E> runnable)
       throws E {
+    if (!enabled.get()) {
+      runnable.run();
+      return;
+    }
+    measure(getMetricHandle(eventName), runnable);
+  }
+
+  public <E extends Exception> void measure(MetricHandle metric, ThrowingRunnable<E> runnable)
+      throws E {
+    if (!enabled.get()) {
+      runnable.run();
+      return;
+    }
+
     boolean success = true;
-    Event event = startEvent(eventName);
+    long startTimeNs = clock.nanoTime();
     try {
       runnable.run();
     } catch (Exception e) {
       success = false;
       throw e;
     } finally {
-      event.finished(success);
+      record(metric, success, clock.nanoTime() - startTimeNs);
     }
   }
 
@@ -153,7 +192,40 @@ public class PerfStatsCollector {
 
   public void reset() {
     metadata.set(null);
+    // Clear before moving to the next generation, so that a metric cached for the new generation is
+    // never one that was cleared.
     metricMap.clear();
+    generation.incrementAndGet();
+  }
+
+  private void record(MetricHandle metric, boolean success, long elapsedNs) {
+    getMetric(metric, success).record(elapsedNs);
+  }
+
+  private Metric getMetric(MetricHandle handle, boolean success) {
+    int currentGeneration = generation.get();
+    CachedMetric cached = success ? handle.successMetric : handle.failureMetric;
+    if (cached != null && cached.generation == currentGeneration && handle.collector == this) {
+      return cached.metric;
+    }
+    Metric metric = getMetric(success ? handle.successKey : handle.failureKey);
+    if (handle.collector == this) {
+      cached = new CachedMetric(currentGeneration, metric);
+      if (success) {
+        handle.successMetric = cached;
+      } else {
+        handle.failureMetric = cached;
+      }
+    }
+    return metric;
+  }
+
+  private Metric getMetric(MetricKey key) {
+    Metric metric = metricMap.get(key);
+    if (metric == null) {
+      metric = metricMap.computeIfAbsent(key, k -> new Metric(k.name, k.success));
+    }
+    return metric;
   }
 
   /** Event for perf stats collection. */
@@ -175,12 +247,40 @@ public class PerfStatsCollector {
         return;
       }
 
-      MetricKey key = new MetricKey(name, success);
-      Metric metric = metricMap.get(key);
-      if (metric == null) {
-        metric = metricMap.computeIfAbsent(key, k -> new Metric(k.name, k.success));
-      }
-      metric.record(clock.nanoTime() - startTimeNs);
+      record(getMetricHandle(name), success, clock.nanoTime() - startTimeNs);
+    }
+  }
+
+  /**
+   * A pre-registered metric, obtained from {@link #getMetricHandle(String)}. Recording to a handle
+   * does not allocate, and only looks up the metric again after the collector is reset.
+   */
+  public static final class MetricHandle {
+    private final PerfStatsCollector collector;
+    private final MetricKey successKey;
+    private final MetricKey failureKey;
+    private volatile CachedMetric successMetric;
+    private volatile CachedMetric failureMetric;
+
+    private MetricHandle(PerfStatsCollector collector, String name) {
+      this.collector = collector;
+      this.successKey = new MetricKey(name, true);
+      this.failureKey = new MetricKey(name, false);
+    }
+
+    public String getName() {
+      return successKey.name;
+    }
+  }
+
+  /** The metric of a handle in a generation of its collector. */
+  private static final class CachedMetric {
+    private final int generation;
+    private final Metric metric;
+
+    CachedMetric(int generation, Metric metric) {
+      this.generation = generation;
+      this.metric = metric;
     }
   }
 
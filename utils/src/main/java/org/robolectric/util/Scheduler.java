@@ -8,8 +8,9 @@ import static org.robolectric.util.Scheduler.IdleState.UNPAUSED;
 import com.google.errorprone.annotations.InlineMe;
 import java.time.Duration;
 import java.util.Iterator;
-import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 
 /**
@@ -31,6 +32,10 @@ import javax.annotation.Nonnull;
  *       advancing its clock as it goes.
  * </ul>
  *
+ * <p>Runnables are kept in a lock-free concurrent queue, so posting from other threads does not
+ * contend with the thread running the scheduled runnables. Running runnables and changing the idle
+ * state are still serialized on the Scheduler instance.
+ *
  * @deprecated Scheduler APIs only function when using LooperMode.LEGACY. Switch to
  *     LooperMode.PAUSED and use {@link ShadowLooper} APIs instead.
  */
@@ -57,14 +62,21 @@ public class Scheduler {
   private volatile long currentTime = START_TIME;
 
   /**
-   * PriorityQueue doesn't maintain ordering based on insertion; track that ourselves to preserve
-   * FIFO order for posted runnables with the same scheduled time.
+   * The queue doesn't maintain ordering based on insertion; track that ourselves to preserve FIFO
+   * order for posted runnables with the same scheduled time. This also guarantees that no two
+   * runnables compare as equal, which the queue relies on.
+   */
+  private final AtomicLong nextTimeDisambiguator = new AtomicLong();
+
+  /**
+   * Decreasing sequence for runnables posted to the front of the queue, so that the most recently
+   * posted one runs first.
    */
-  private long nextTimeDisambiguator = 0;
+  private final AtomicLong nextFrontOfQueueDisambiguator = new AtomicLong();
 
   private boolean isExecutingRunnable = false;
   private final Thread associatedThread = Thread.currentThread();
-  private final PriorityQueue<ScheduledRunnable> runnables = new PriorityQueue<>();
+  private final ConcurrentSkipListSet<ScheduledRunnable> runnables = new ConcurrentSkipListSet<>();
   private volatile IdleState idleState = UNPAUSED;
 
   /**
@@ -144,7 +156,7 @@ public class Scheduler {
    *
    * @param runnable Runnable to add.
    */
-  public synchronized void post(Runnable runnable) {
+  public void post(Runnable runnable) {
     postDelayed(runnable, 0, MILLISECONDS);
   }
 
@@ -154,18 +166,20 @@ public class Scheduler {
    * @param runnable Runnable to add.
    * @param delayMillis Delay in millis.
    */
-  public synchronized void postDelayed(Runnable runnable, long delayMillis) {
+  public void postDelayed(Runnable runnable, long delayMillis) {
     postDelayed(runnable, delayMillis, MILLISECONDS);
   }
 
   /** Add a runnable to the queue to be run after a delay. */
-  public synchronized void postDelayed(Runnable runnable, long delay, TimeUnit unit) {
+  public void postDelayed(Runnable runnable, long delay, TimeUnit unit) {
     long delayMillis = unit.toMillis(delay);
     if ((idleState != CONSTANT_IDLE && (isPaused() || delayMillis > 0))
         || Thread.currentThread() != associatedThread) {
       runnables.add(new ScheduledRunnable(runnable, currentTime + delayMillis));
     } else {
-      runOrQueueRunnable(runnable, currentTime + delayMillis);
+      synchronized (this) {
+        runOrQueueRunnable(runnable, currentTime + delayMillis);
+      }
     }
   }
 
@@ -174,17 +188,14 @@ public class Scheduler {
    *
    * @param runnable Runnable to add.
    */
-  public synchronized void postAtFrontOfQueue(Runnable runnable) {
+  public void postAtFrontOfQueue(Runnable runnable) {
     if (isPaused() || Thread.currentThread() != associatedThread) {
-      final long timeDisambiguator;
-      if (runnables.isEmpty()) {
-        timeDisambiguator = nextTimeDisambiguator++;
-      } else {
-        timeDisambiguator = runnables.peek().timeDisambiguator - 1;
-      }
-      runnables.add(new ScheduledRunnable(runnable, 0, timeDisambiguator));
+      runnables.add(
+          new ScheduledRunnable(runnable, 0, nextFrontOfQueueDisambiguator.decrementAndGet()));
     } else {
-      runOrQueueRunnable(runnable, currentTime);
+      synchronized (this) {
+        runOrQueueRunnable(runnable, currentTime);
+      }
     }
   }
 
@@ -193,7 +204,7 @@ public class Scheduler {
    *
    * @param runnable Runnable to remove.
    */
-  public synchronized void remove(Runnable runnable) {
+  public void remove(Runnable runnable) {
     Iterator<ScheduledRunnable> iterator = runnables.iterator();
     while (iterator.hasNext()) {
       if (iterator.next().runnable == runnable) {
@@ -224,7 +235,8 @@ public class Scheduler {
    * @return True if a runnable was executed.
    */
   public synchronized boolean advanceToNextPostedRunnable() {
-    return !runnables.isEmpty() && advanceTo(runnables.peek().scheduledTime);
+    ScheduledRunnable next = peek();
+    return next != null && advanceTo(next.scheduledTime);
   }
 
   /**
@@ -279,7 +291,7 @@ public class Scheduler {
    * @return True if a runnable was executed.
    */
   public synchronized boolean runOneTask() {
-    ScheduledRunnable postedRunnable = runnables.poll();
+    ScheduledRunnable postedRunnable = runnables.pollFirst();
     if (postedRunnable != null) {
       if (postedRunnable.scheduledTime > currentTime) {
         currentTime = postedRunnable.scheduledTime;
@@ -295,7 +307,7 @@ public class Scheduler {
    *
    * @return True if any runnables can be executed.
    */
-  public synchronized boolean areAnyRunnable() {
+  public boolean areAnyRunnable() {
     return nextTaskIsScheduledBefore(currentTime);
   }
 
@@ -310,19 +322,22 @@ public class Scheduler {
   /**
    * Return the number of enqueued runnables.
    *
+   * <p>Note that this requires a traversal of the queue.
+   *
    * @return Number of enqueues runnables.
    */
-  public synchronized int size() {
+  public int size() {
     return runnables.size();
   }
 
   @SuppressWarnings("NewApi")
-  public synchronized Duration getNextScheduledTaskTime() {
-    return runnables.isEmpty() ? Duration.ZERO : Duration.ofMillis(runnables.peek().scheduledTime);
+  public Duration getNextScheduledTaskTime() {
+    ScheduledRunnable next = peek();
+    return next == null ? Duration.ZERO : Duration.ofMillis(next.scheduledTime);
   }
 
   @SuppressWarnings("NewApi")
-  public synchronized Duration getLastScheduledTaskTime() {
+  public Duration getLastScheduledTaskTime() {
     if (runnables.isEmpty()) {
       return Duration.ZERO;
     }
@@ -336,7 +351,14 @@ public class Scheduler {
   }
 
   private boolean nextTaskIsScheduledBefore(long endingTime) {
-    return !runnables.isEmpty() && runnables.peek().scheduledTime <= endingTime;
+    ScheduledRunnable next = peek();
+    return next != null && next.scheduledTime <= endingTime;
+  }
+
+  private ScheduledRunnable peek() {
+    // unlike first(), iterating does not throw if another thread empties the queue concurrently
+    Iterator<ScheduledRunnable> iterator = runnables.iterator();
+    return iterator.hasNext() ? iterator.next() : null;
   }
 
   private void runOrQueueRunnable(Runnable runnable, long scheduledTime) {
@@ -373,7 +395,7 @@ public class Scheduler {
     private final long timeDisambiguator;
 
     private ScheduledRunnable(Runnable runnable, long scheduledTime) {
-      this(runnable, scheduledTime, nextTimeDisambiguator++);
+      this(runnable, scheduledTime, nextTimeDisambiguator.getAndIncrement());
     }
 
     private ScheduledRunnable(Runnable runnable, long scheduledTime, long timeDisambiguator) {
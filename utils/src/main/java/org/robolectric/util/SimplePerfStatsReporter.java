@@ -1,8 +1,6 @@
 package org.robolectric.util;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -15,62 +13,60 @@ import org.robolectric.pluginapi.perf.PerfStatsReporter;
 /** Simple implementation of PerfStatsReporter that writes stats to stdout. */
 public class SimplePerfStatsReporter implements PerfStatsReporter {
 
-  private final List<Data> perfStatsData = new ArrayList<>();
+  // Metrics are merged as they are reported, so memory use does not grow with the number of tests.
+  private final Map<MetricKey, Metric> mergedMetrics = new TreeMap<>();
 
   @Override
   public synchronized void report(Metadata metadata, Collection<Metric> metrics) {
-    perfStatsData.add(new Data(metadata, metrics));
+    int sdkInt = metadata.getSdk();
+
+    for (Metric metric : metrics) {
+      MetricKey key = new MetricKey(metric.getName(), metric.isSuccess(), sdkInt);
+      Metric mergedMetric = mergedMetrics.get(key);
+      if (mergedMetric == null) {
+        mergedMetric = new Metric(metric.getName(), metric.isSuccess());
+        mergedMetrics.put(key, mergedMetric);
+      }
+      mergedMetric.merge(metric);
+    }
   }
 
   @Override
   @SuppressWarnings("AndroidJdkLibsChecker)")
   public synchronized void finalReport() {
-    Map<MetricKey, MetricValue> mergedMetrics = new TreeMap<>();
-    for (Data perfStatsData : perfStatsData) {
-      int sdkInt = perfStatsData.metadata.getSdk();
-
-      for (Metric metric : perfStatsData.metrics) {
-        MetricKey key = new MetricKey(metric.getName(), metric.isSuccess(), sdkInt);
-        MetricValue mergedMetric = mergedMetrics.get(key);
-        if (mergedMetric == null) {
-          mergedMetric = new MetricValue();
-          mergedMetrics.put(key, mergedMetric);
-        }
-        mergedMetric.report(metric);
-      }
-    }
-
     AsciiTable table = new AsciiTable();
-    table.addRow("Name", "SDK", "Success", "Count", "Min ms", "Max ms", "Avg ms", "Total ms");
-
-    for (Entry<MetricKey, MetricValue> entry : mergedMetrics.entrySet()) {
+    table.addRow(
+        "Name",
+        "SDK",
+        "Success",
+        "Count",
+        "Min ms",
+        "Max ms",
+        "Avg ms",
+        "p50 ms",
+        "p99 ms",
+        "Total ms");
+
+    for (Entry<MetricKey, Metric> entry : mergedMetrics.entrySet()) {
       MetricKey key = entry.getKey();
 
-      MetricValue value = entry.getValue();
+      Metric value = entry.getValue();
 
       table.addRow(
           key.name,
           key.sdkLevel,
           key.success,
-          value.count,
-          (int) (value.minNs / 1000000),
-          (int) (value.maxNs / 1000000),
-          (int) (value.elapsedNs / 1000000 / value.count),
-          (int) (value.elapsedNs / 1000000));
+          value.getCount(),
+          (int) (value.getMinNs() / 1000000),
+          (int) (value.getMaxNs() / 1000000),
+          (int) (value.getElapsedNs() / 1000000 / value.getCount()),
+          (int) (value.getPercentileNs(50) / 1000000),
+          (int) (value.getPercentileNs(99) / 1000000),
+          (int) (value.getElapsedNs() / 1000000));
     }
     table.print();
   }
 
-  private static class Data {
-    private final Metadata metadata;
-    private final Collection<Metric> metrics;
-
-    public Data(Metadata metadata, Collection<Metric> metrics) {
-      this.metadata = metadata;
-      this.metrics = metrics;
-    }
-  }
-
   private static class MetricKey implements Comparable<MetricKey> {
     private final String name;
     private final boolean success;
@@ -128,25 +124,4 @@ public class SimplePerfStatsReporter implements PerfStatsReporter {
       return Boolean.compare(success, o.success);
     }
   }
-
-  private static class MetricValue {
-    private int count;
-    private long minNs;
-    private long maxNs;
-    private long elapsedNs;
-
-    public void report(Metric metric) {
-      if (count == 0) {
-        count = metric.getCount();
-        minNs = metric.getMinNs();
-        maxNs = metric.getMaxNs();
-        elapsedNs = metric.getElapsedNs();
-      } else {
-        count += metric.getCount();
-        minNs = Math.min(minNs, metric.getMinNs());
-        maxNs = Math.max(maxNs, metric.getMaxNs());
-        elapsedNs += metric.getElapsedNs();
-      }
-    }
-  }
 }
@@ -120,6 +120,68 @@ class PerfStatsCollectorTest {
     assertThat(collector.metrics).containsExactly(Metric("changing event", 7, 0, true))
   }
 
+  @Test
+  fun shouldMeasureWithMetricHandle() {
+    val handle = collector.getMetricHandle("handle event")
+    for (i in 1..100) {
+      collector.measure<Int, RuntimeException>(handle) {
+        fakeClock.delay(i * 1000)
+        i
+      }
+    }
+    val metric = collector.metrics.single()
+    assertThat(metric).isEqualTo(Metric("handle event", 100, 5050000, true))
+    assertThat(metric.count).isEqualTo(100)
+    assertThat(metric.minNs).isEqualTo(1000)
+    assertThat(metric.maxNs).isEqualTo(100000)
+    // percentiles are estimated within 12.5%
+    assertThat(metric.getPercentileNs(50.0)).isAtLeast(50000L)
+    assertThat(metric.getPercentileNs(50.0)).isAtMost(57000L)
+    assertThat(metric.getPercentileNs(99.0)).isEqualTo(100000L)
+  }
+
+  @Test
+  fun metricHandle_shouldRecordToNewMetricAfterReset() {
+    val handle = collector.getMetricHandle("handle event")
+    collector.incrementCount(handle)
+    collector.reset()
+    collector.incrementCount(handle)
+    collector.incrementCount(handle)
+    assertThat(collector.metrics.single().count).isEqualTo(2)
+  }
+
+  @Test
+  fun shouldRecordConcurrently() {
+    val metric = Metric("concurrent event", true)
+    val threads =
+      (1..4).map { thread ->
+        Thread {
+          for (i in 1..10000) {
+            metric.record((thread * i).toLong())
+          }
+        }
+      }
+    threads.forEach { it.start() }
+    threads.forEach { it.join() }
+    assertThat(metric.count).isEqualTo(40000)
+    assertThat(metric.maxNs).isEqualTo(40000)
+    assertThat(metric.getPercentileNs(100.0)).isEqualTo(40000L)
+  }
+
+  @Test
+  fun shouldMergeMetrics() {
+    val first = Metric("merged event", true)
+    first.record(10)
+    val second = Metric("merged event", true)
+    second.record(30)
+    second.record(20)
+    first.merge(second)
+    assertThat(first.count).isEqualTo(3)
+    assertThat(first.elapsedNs).isEqualTo(60)
+    assertThat(first.minNs).isEqualTo(10)
+    assertThat(first.maxNs).isEqualTo(30)
+  }
+
   private class FakeClock : Clock {
     private var timeNs = 0
 
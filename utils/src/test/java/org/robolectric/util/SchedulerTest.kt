@@ -8,6 +8,7 @@ import com.google.common.truth.Truth.assertWithMessage
 import java.util.ArrayList
 import java.util.Random
 import java.util.TreeMap
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicLong
 import org.junit.Before
@@ -463,6 +464,48 @@ class SchedulerTest {
     }
   }
 
+  @Test(timeout = 1000)
+  @Throws(InterruptedException::class)
+  fun schedulerAllowsConcurrentPost_whileLockIsHeld() {
+    val t: Thread =
+      object : Thread("schedulerAllowsConcurrentPost") {
+        override fun run() {
+          scheduler.postDelayed(AddToTranscript("one"), 10)
+        }
+      }
+    // Grab the lock and then start a thread that tries to post. The other thread should not
+    // deadlock.
+    synchronized(scheduler) {
+      t.start()
+      t.join()
+    }
+    assertThat(scheduler.size()).isEqualTo(1)
+  }
+
+  @Test
+  @Throws(InterruptedException::class)
+  fun postFromMultipleThreads_advanceToRunsInScheduledOrder() {
+    val executed: MutableList<Long> = ArrayList()
+    val threads =
+      (0 until 8).map { i ->
+        object : Thread("poster$i") {
+          override fun run() {
+            for (j in 0 until 500) {
+              val delay = ((i * 500 + j) % 97).toLong()
+              scheduler.postDelayed({ executed.add(scheduler.currentTime) }, delay)
+            }
+          }
+        }
+      }
+    threads.forEach { it.start() }
+    threads.forEach { it.join() }
+
+    assertThat(scheduler.size()).isEqualTo(4000)
+    scheduler.advanceBy(100, TimeUnit.MILLISECONDS)
+    assertThat(executed).hasSize(4000)
+    assertThat(executed).isInOrder()
+  }
+
   private inner class AddToTranscript(private val event: String) : Runnable {
     override fun run() {
       transcript.add(event)